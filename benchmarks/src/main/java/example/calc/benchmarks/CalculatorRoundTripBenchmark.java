@@ -0,0 +1,125 @@
+package example.calc.benchmarks;
+
+import example.calc.calculator.CalculatorService;
+import example.calc.evaluator.PostfixEvaluationService;
+import example.calc.tokenizer.PrattParser;
+import example.demo.shared.cache.OperationCacheProperties;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.latency.LatencyProperties;
+import example.demo.shared.logging.HotPathLog;
+import example.demo.shared.logging.HotPathLogProperties;
+import example.demo.shared.proto.CalculatorGrpc;
+import example.demo.shared.proto.CalculatorOuterClass;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The calculator's three RPCs over grpc-java's in-process transport, as the colocated deployment makes them: the
+ * cost of a call without the network, with the simulated work turned off. {@code evaluateProgram} and
+ * {@code calculateBatch} carry {@code operands} values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Vector API for the calculateBatch kernel, as in the calculator's own launch configuration
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class CalculatorRoundTripBenchmark {
+
+    private static final String[] ENDPOINTS = {"calculate", "evaluate-program", "calculate-batch"};
+
+    @Param({"8", "32", "128"})
+    int operands;
+
+    private Server server;
+    private ManagedChannel channel;
+    private CalculatorGrpc.CalculatorBlockingStub stub;
+    private CalculatorOuterClass.CalculatorRequest calculation;
+    private CalculatorOuterClass.ProgramRequest program;
+    private CalculatorOuterClass.BatchRequest batch;
+
+    @Setup
+    public void setup() throws IOException {
+        LatencyProperties latency = new LatencyProperties();
+        for (String endpoint : ENDPOINTS) {
+            LatencyProperties.Profile profile = new LatencyProperties.Profile();
+            profile.setDuration(Duration.ZERO);
+            latency.getEndpoints().put(endpoint, profile);
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CalculatorService service = new CalculatorService(Tracer.NOOP, new OperationCacheProperties(),
+                new LatencyInjector(latency, registry), new HotPathLog(new HotPathLogProperties(), registry), registry);
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = CalculatorGrpc.newBlockingStub(channel);
+
+        calculation = CalculatorOuterClass.CalculatorRequest.newBuilder()
+                .setOperation(CalculatorOuterClass.CalculatorRequest.Operation.MULTIPLY)
+                .setA(6)
+                .setB(7)
+                .build();
+        // the same request the evaluator's PER_PROGRAM mode sends
+        program = PostfixEvaluationService.toProgram(
+                PostfixTape.fromTokens(PrattParser.parse(Expressions.random(operands, 42))));
+        batch = batch(operands);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public CalculatorOuterClass.CalculatorResponse calculate() {
+        return stub.calculate(calculation);
+    }
+
+    @Benchmark
+    public CalculatorOuterClass.ProgramResponse evaluateProgram() {
+        return stub.evaluateProgram(program);
+    }
+
+    @Benchmark
+    public CalculatorOuterClass.BatchResponse calculateBatch() {
+        return stub.calculateBatch(batch);
+    }
+
+    private static CalculatorOuterClass.BatchRequest batch(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        CalculatorOuterClass.CalculatorRequest.Operation[] operations = CalculatorOuterClass.CalculatorRequest.Operation.values();
+        CalculatorOuterClass.BatchRequest.Builder batch = CalculatorOuterClass.BatchRequest.newBuilder();
+        for (int i = 0; i < size; i++) {
+            batch.addA(random.nextInt(1, 100))
+                    .addB(random.nextInt(1, 100))
+                    // values() ends with UNRECOGNIZED
+                    .addOperation(operations[random.nextInt(operations.length - 1)]);
+        }
+        return batch.build();
+    }
+}
@@ -0,0 +1,28 @@
+package example.calc.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible inputs: the same seed gives the same expressions on every run, so results stay comparable.
+ */
+final class Expressions {
+
+    private static final char[] OPERATORS = {'+', '-', '*', '/'};
+
+    private Expressions() {
+    }
+
+    /**
+     * An expression of {@code operands} integers from 1 to 99 joined by random operators, without brackets so the
+     * original shunting-yard path can take it too. Every divisor is a literal, so none is zero.
+     */
+    static String random(int operands, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder expression = new StringBuilder(operands * 3);
+        expression.append(random.nextInt(1, 100));
+        for (int i = 1; i < operands; i++) {
+            expression.append(OPERATORS[random.nextInt(OPERATORS.length)]).append(random.nextInt(1, 100));
+        }
+        return expression.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package example.calc.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import example.calc.tokenizer.PrattParser;
+import example.demo.shared.Utils.Serdes;
+import example.demo.shared.domain.Token;
+import example.demo.shared.logging.HotPathLog;
+import example.demo.shared.logging.HotPathLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tokenizer's per-request {@code Tokens extracted} line, logged the way it used to be, with the JSON built
+ * eagerly, against the same line through a {@link HotPathLog} site keeping {@code sampleRate} of them. The logger is
+ * at INFO and writes to {@code /dev/null} (see {@code logback.xml}), so a logged line pays for its formatting and
+ * encoding but not for I/O. Run with the GC profiler for the allocation per line.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathLogBenchmark {
+
+    @Param({"1.0", "0.1", "0.0"})
+    double sampleRate;
+
+    private final Serdes serdes = new Serdes(new ObjectMapper());
+    private List<Token> tokens;
+    private HotPathLog.Site site;
+
+    @Setup
+    public void setup() {
+        tokens = PrattParser.parse(Expressions.random(32, 42));
+        HotPathLogProperties properties = new HotPathLogProperties();
+        properties.setSampleRate(sampleRate);
+        properties.setRatePerSecond(0);
+        site = new HotPathLog(properties, new SimpleMeterRegistry()).site(log, "tokenize-tokens");
+    }
+
+    @Benchmark
+    public void eager() {
+        log.info("Tokens extracted: {}", serdes.serialize(tokens));
+    }
+
+    @Benchmark
+    public void hotPath() {
+        site.info("Tokens extracted: {}", () -> serdes.serialize(tokens));
+    }
+}
@@ -0,0 +1,65 @@
+package example.calc.benchmarks;
+
+import example.calc.evaluator.EvaluatorProperties;
+import example.calc.evaluator.ExpressionCompiler;
+import example.calc.tokenizer.PrattParser;
+import example.demo.shared.domain.PostfixTape;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code evaluator.mode=LOCAL}: the stack interpreter for cold expression shapes against the method handles that
+ * hot shapes are compiled to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalEvaluationBenchmark {
+
+    @Param({"8", "32", "128"})
+    int operands;
+
+    private PostfixTape tape;
+    private ExpressionCompiler interpreter;
+    private ExpressionCompiler compiler;
+
+    @Setup
+    public void setup() {
+        tape = PostfixTape.fromTokens(PrattParser.parse(Expressions.random(operands, 42)));
+        interpreter = compiler(Integer.MAX_VALUE);
+        compiler = compiler(1);
+        // the first execution compiles the shape
+        compiler.evaluate(tape);
+    }
+
+    private static ExpressionCompiler compiler(int threshold) {
+        EvaluatorProperties properties = new EvaluatorProperties();
+        properties.getCompiler().setThreshold(threshold);
+        return new ExpressionCompiler(properties, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public double interpreted() {
+        return interpreter.evaluate(tape);
+    }
+
+    @Benchmark
+    public double compiled() {
+        return compiler.evaluate(tape);
+    }
+}
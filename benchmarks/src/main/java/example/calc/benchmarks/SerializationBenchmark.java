@@ -0,0 +1,87 @@
+package example.calc.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import example.calc.tokenizer.PrattParser;
+import example.demo.shared.Utils.Serdes;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.domain.Token;
+import example.demo.shared.proto.TokenizerOuterClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three encodings of a postfix expression between the tokenizer and the evaluator: a JSON {@link Token} list
+ * ({@code POST /tokenize}), the protobuf {@code TokenizeResponse} (gRPC) and the binary {@link PostfixTape}
+ * ({@code POST /tokenize/tape}). Decoding ends at whatever the evaluator works on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"8", "32", "128"})
+    int operands;
+
+    private final Serdes serdes = new Serdes(new ObjectMapper());
+    private List<Token> postfix;
+    private PostfixTape tape;
+    private String json;
+    private byte[] protobuf;
+    private byte[] tapeBytes;
+
+    @Setup
+    public void setup() {
+        postfix = PrattParser.parse(Expressions.random(operands, 42));
+        tape = PostfixTape.fromTokens(postfix);
+        json = new String(serdes.serializeToBytes(postfix), StandardCharsets.UTF_8);
+        protobuf = tape.toProto().toByteArray();
+        tapeBytes = tape.toBytes();
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return serdes.serializeToBytes(postfix);
+    }
+
+    @Benchmark
+    public Token[] jsonDecode() {
+        return serdes.deserialize(json, Token[].class);
+    }
+
+    @Benchmark
+    public byte[] protobufEncode() {
+        return PostfixTape.fromTokens(postfix).toProto().toByteArray();
+    }
+
+    @Benchmark
+    public PostfixTape protobufDecode() throws InvalidProtocolBufferException {
+        return PostfixTape.fromProto(TokenizerOuterClass.TokenizeResponse.parseFrom(protobuf));
+    }
+
+    @Benchmark
+    public byte[] tapeEncode() {
+        return tape.toBytes();
+    }
+
+    @Benchmark
+    public PostfixTape tapeDecode() {
+        return PostfixTape.fromBytes(tapeBytes);
+    }
+}
@@ -0,0 +1,63 @@
+package example.calc.benchmarks;
+
+import example.calc.tokenizer.PrattParser;
+import example.calc.tokenizer.Util;
+import example.demo.shared.domain.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The original regex tokenizer and shunting-yard conversion, step by step, next to the single-pass Pratt parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({"8", "32", "128"})
+    int operands;
+
+    private String expression;
+    private List<Token> tokens;
+
+    @Setup
+    public void setup() {
+        expression = Expressions.random(operands, 42);
+        tokens = Util.tokenize(expression);
+    }
+
+    @Benchmark
+    public List<Token> tokenize() {
+        return Util.tokenize(expression);
+    }
+
+    @Benchmark
+    public List<Token> convertToPostfix() {
+        return Util.convertToPostfix(tokens);
+    }
+
+    @Benchmark
+    public List<Token> tokenizeAndConvert() {
+        return Util.convertToPostfix(Util.tokenize(expression));
+    }
+
+    @Benchmark
+    public List<Token> prattParse() {
+        return PrattParser.parse(expression);
+    }
+}
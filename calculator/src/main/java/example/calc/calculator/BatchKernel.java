@@ -0,0 +1,25 @@
+package example.calc.calculator;
+
+import example.demo.shared.proto.CalculatorOuterClass;
+
+/**
+ * Applies one operation element-wise to two columns of operands.
+ */
+interface BatchKernel {
+
+    /**
+     * {@code out[i] = a[i] op b[i]} for {@code i < length}. Division by zero is not checked here and yields an
+     * infinity or NaN.
+     */
+    void apply(CalculatorOuterClass.CalculatorRequest.Operation operation, double[] a, double[] b, double[] out, int length);
+
+    /**
+     * The Vector API kernel when the JVM runs with {@code --add-modules jdk.incubator.vector}, otherwise the scalar
+     * one.
+     */
+    static BatchKernel create() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                ? new VectorBatchKernel()
+                : new ScalarBatchKernel();
+    }
+}
@@ -0,0 +1,17 @@
+package example.calc.calculator;
+
+import example.demo.shared.limit.ConcurrencyLimitProperties;
+import example.demo.shared.limit.ConcurrencyLimitingServerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CalculatorConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitingServerInterceptor calculatorConcurrencyLimiter(ConcurrencyLimitProperties properties,
+                                                                             MeterRegistry registry) {
+        return ConcurrencyLimitingServerInterceptor.create("calculator", properties, registry);
+    }
+}
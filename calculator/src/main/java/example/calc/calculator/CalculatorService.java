@@ -1,25 +1,54 @@
 package example.calc.calculator;
 
+import example.demo.shared.cache.OperationCache;
+import example.demo.shared.cache.OperationCacheProperties;
 import example.demo.shared.exceptions.DivisionByZeroException;
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.logging.HotPathLog;
 import example.demo.shared.proto.CalculatorGrpc;
 import example.demo.shared.proto.CalculatorOuterClass;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 
-import static example.demo.shared.Utils.Sleeper.sleep;
+import java.time.Duration;
 
 @Slf4j
-@GrpcService
+@GrpcService(interceptorNames = "calculatorConcurrencyLimiter")
 public class CalculatorService extends CalculatorGrpc.CalculatorImplBase {
 
+    private static final CalculatorOuterClass.CalculatorRequest.Operation[] OPERATIONS = {
+            CalculatorOuterClass.CalculatorRequest.Operation.ADD,
+            CalculatorOuterClass.CalculatorRequest.Operation.SUBTRACT,
+            CalculatorOuterClass.CalculatorRequest.Operation.MULTIPLY,
+            CalculatorOuterClass.CalculatorRequest.Operation.DIVIDE
+    };
+
     private final Tracer tracer;
+    private final OperationCache cache;
+    private final BatchKernel batchKernel = BatchKernel.create();
+    private final LatencyInjector.Endpoint calculateLatency;
+    private final LatencyInjector.Endpoint programLatency;
+    private final LatencyInjector.Endpoint batchLatency;
+    private final HotPathLog.Site calculateLog;
+    private final HotPathLog.Site programLog;
+    private final HotPathLog.Site batchLog;
 
-    public CalculatorService(Tracer tracer) {
+    public CalculatorService(Tracer tracer, OperationCacheProperties cacheProperties, LatencyInjector latency,
+                             HotPathLog hotPathLog, MeterRegistry registry) {
         this.tracer = tracer;
+        this.calculateLatency = latency.endpoint("calculate", Duration.ofMillis(10));
+        this.programLatency = latency.endpoint("evaluate-program", Duration.ofMillis(10));
+        this.batchLatency = latency.endpoint("calculate-batch", Duration.ofMillis(10));
+        this.calculateLog = hotPathLog.site(log, "calculate");
+        this.programLog = hotPathLog.site(log, "evaluate-program");
+        this.batchLog = hotPathLog.site(log, "calculate-batch");
+        this.cache = OperationCache.create("calculator.operations", cacheProperties, true, registry);
+        log.info("calculateBatch kernel: {}", batchKernel.getClass().getSimpleName());
     }
 
     @Override
@@ -30,22 +59,26 @@ public class CalculatorService extends CalculatorGrpc.CalculatorImplBase {
         final double a = request.getA();
         final double b = request.getB();
 
-        log.info("CalculateOperation: {} > {}, {}", operation, a, b);
+        calculateLog.info("CalculateOperation: {} > {}, {}", () -> operation, () -> a, () -> b);
         Span currentSpan = tracer.currentSpan();
-        sleep(10);
 
-        try {
-            double result = switch (operation) {
-                case ADD -> a + b;
-                case SUBTRACT -> a - b;
-                case MULTIPLY -> a * b;
-                case DIVIDE -> {
-                    if (b == 0) throw new DivisionByZeroException("Division by zero is not allowed");
-                    yield a / b;
-                }
-                default -> throw new IllegalArgumentException("Invalid operation");
-            };
+        if (cache != null) {
+            long cached = cache.lookup(operation.getNumber(), a, b);
+            if (cached != OperationCache.MISS) {
+                responseObserver.onNext(CalculatorOuterClass.CalculatorResponse.newBuilder()
+                        .setResult(Double.longBitsToDouble(cached))
+                        .build());
+                responseObserver.onCompleted();
+                return;
+            }
+        }
+        calculateLatency.inject();
 
+        try {
+            double result = apply(operation, a, b);
+            if (cache != null) {
+                cache.put(operation.getNumber(), a, b, result);
+            }
 
             CalculatorOuterClass.CalculatorResponse response = CalculatorOuterClass.CalculatorResponse.newBuilder()
                     .setResult(result)
@@ -72,4 +105,175 @@ public class CalculatorService extends CalculatorGrpc.CalculatorImplBase {
                     .asRuntimeException());
         }
     }
+
+    /**
+     * Runs a whole postfix program on a local stack, so the caller pays for one round trip (and one simulated
+     * unit of work) instead of one per operator. Evaluation failures are returned as a structured
+     * {@link CalculatorOuterClass.ProgramError} pointing at the failing step rather than as a gRPC status.
+     */
+    @Override
+    public void evaluateProgram(CalculatorOuterClass.ProgramRequest request,
+                                StreamObserver<CalculatorOuterClass.ProgramResponse> responseObserver) {
+
+        programLog.info("EvaluateProgram: {} steps", request::getStepsCount);
+        Span currentSpan = tracer.currentSpan();
+        programLatency.inject();
+
+        CalculatorOuterClass.ProgramResponse response = runProgram(request);
+        if (response.hasError() && currentSpan != null) {
+            currentSpan.tag("error", response.getError().getCode().name());
+            currentSpan.event("Program failed at step " + response.getError().getStepIndex());
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Applies a columnar batch of independent operations for one round trip (and one simulated unit of work). Entries
+     * are grouped by operation and each group runs through the {@link BatchKernel} as dense columns. A failed entry,
+     * such as a division by zero, is reported by index and does not fail the rest of the batch.
+     * <p>
+     * The SERVER placement of the {@link OperationCache} is not consulted: the batch pays its one simulated unit of
+     * work either way, so a hit would only save the kernel's arithmetic. The evaluator checks its CLIENT cache before
+     * an operation is queued.
+     */
+    @Override
+    public void calculateBatch(CalculatorOuterClass.BatchRequest request,
+                               StreamObserver<CalculatorOuterClass.BatchResponse> responseObserver) {
+        final int size = request.getACount();
+        if (request.getBCount() != size || request.getOperationCount() != size) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Batch columns differ in length: " + size + " a, " + request.getBCount() + " b, "
+                            + request.getOperationCount() + " operations")
+                    .asRuntimeException());
+            return;
+        }
+
+        batchLog.info("CalculateBatch: {} operations", () -> size);
+        batchLatency.inject();
+
+        CalculatorOuterClass.BatchResponse response = runBatch(request, batchKernel);
+        if (response.getFailedIndexCount() > 0) {
+            Span currentSpan = tracer.currentSpan();
+            if (currentSpan != null) {
+                currentSpan.event(response.getFailedIndexCount() + " of " + size + " batch operations failed");
+            }
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    static CalculatorOuterClass.BatchResponse runBatch(CalculatorOuterClass.BatchRequest request, BatchKernel kernel) {
+        final int size = request.getACount();
+        final double[] results = new double[size];
+        final int[] indices = new int[size];
+        final double[] a = new double[size];
+        final double[] b = new double[size];
+        final double[] out = new double[size];
+
+        for (CalculatorOuterClass.CalculatorRequest.Operation operation : OPERATIONS) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (request.getOperationValue(i) == operation.getNumber()) {
+                    indices[count] = i;
+                    a[count] = request.getA(i);
+                    b[count] = request.getB(i);
+                    count++;
+                }
+            }
+            if (count > 0) {
+                kernel.apply(operation, a, b, out, count);
+                for (int j = 0; j < count; j++) {
+                    results[indices[j]] = out[j];
+                }
+            }
+        }
+
+        CalculatorOuterClass.BatchResponse.Builder response = CalculatorOuterClass.BatchResponse.newBuilder();
+        for (int i = 0; i < size; i++) {
+            int operation = request.getOperationValue(i);
+            if (CalculatorOuterClass.CalculatorRequest.Operation.forNumber(operation) == null) {
+                results[i] = Double.NaN;
+                response.addFailedIndex(i).addError("Unknown operation: " + operation);
+            } else if (operation == CalculatorOuterClass.CalculatorRequest.Operation.DIVIDE_VALUE && request.getB(i) == 0) {
+                results[i] = Double.NaN;
+                response.addFailedIndex(i).addError("Division by zero is not allowed");
+            }
+            response.addResult(results[i]);
+        }
+        return response.build();
+    }
+
+    static CalculatorOuterClass.ProgramResponse runProgram(CalculatorOuterClass.ProgramRequest request) {
+        final int stepCount = request.getStepsCount();
+        final double[] stack = new double[stepCount];
+        // value each step pushed, for REF steps
+        final double[] values = new double[stepCount];
+        int top = 0;
+
+        for (int i = 0; i < stepCount; i++) {
+            CalculatorOuterClass.ProgramRequest.Step step = request.getSteps(i);
+            switch (step.getKindCase()) {
+                case OPERAND -> stack[top++] = step.getOperand();
+                case REF -> {
+                    if (step.getRef() < 0 || step.getRef() >= i) {
+                        return programError(CalculatorOuterClass.ProgramError.Code.MALFORMED_PROGRAM, i,
+                                "Reference to step " + step.getRef() + " is not an earlier step");
+                    }
+                    stack[top++] = values[step.getRef()];
+                }
+                case OPERATION -> {
+                    if (top < 2) {
+                        return programError(CalculatorOuterClass.ProgramError.Code.STACK_UNDERFLOW, i,
+                                "Operation " + step.getOperation() + " needs two operands");
+                    }
+                    double b = stack[--top];
+                    double a = stack[--top];
+                    try {
+                        stack[top++] = apply(step.getOperation(), a, b);
+                    } catch (DivisionByZeroException e) {
+                        return programError(CalculatorOuterClass.ProgramError.Code.DIVISION_BY_ZERO, i, e.getMessage());
+                    } catch (IllegalArgumentException e) {
+                        return programError(CalculatorOuterClass.ProgramError.Code.MALFORMED_PROGRAM, i, e.getMessage());
+                    }
+                }
+                default -> {
+                    return programError(CalculatorOuterClass.ProgramError.Code.MALFORMED_PROGRAM, i, "Empty step");
+                }
+            }
+            values[i] = stack[top - 1];
+        }
+
+        if (top != 1) {
+            return programError(CalculatorOuterClass.ProgramError.Code.MALFORMED_PROGRAM, stepCount,
+                    "Program left " + top + " values on the stack");
+        }
+        return CalculatorOuterClass.ProgramResponse.newBuilder()
+                .setResult(stack[0])
+                .build();
+    }
+
+    static double apply(CalculatorOuterClass.CalculatorRequest.Operation operation, double a, double b) {
+        return switch (operation) {
+            case ADD -> a + b;
+            case SUBTRACT -> a - b;
+            case MULTIPLY -> a * b;
+            case DIVIDE -> {
+                if (b == 0) throw new DivisionByZeroException("Division by zero is not allowed");
+                yield a / b;
+            }
+            default -> throw new IllegalArgumentException("Invalid operation");
+        };
+    }
+
+    private static CalculatorOuterClass.ProgramResponse programError(CalculatorOuterClass.ProgramError.Code code,
+                                                                     int stepIndex, String message) {
+        log.error("Program error at step {}: {} - {}", stepIndex, code, message);
+        return CalculatorOuterClass.ProgramResponse.newBuilder()
+                .setError(CalculatorOuterClass.ProgramError.newBuilder()
+                        .setCode(code)
+                        .setStepIndex(stepIndex)
+                        .setMessage(message))
+                .build();
+    }
 }
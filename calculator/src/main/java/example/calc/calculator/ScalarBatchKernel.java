@@ -0,0 +1,30 @@
+package example.calc.calculator;
+
+import example.demo.shared.proto.CalculatorOuterClass;
+
+final class ScalarBatchKernel implements BatchKernel {
+
+    @Override
+    public void apply(CalculatorOuterClass.CalculatorRequest.Operation operation, double[] a, double[] b, double[] out, int length) {
+        apply(operation, a, b, out, 0, length);
+    }
+
+    static void apply(CalculatorOuterClass.CalculatorRequest.Operation operation,
+                      double[] a, double[] b, double[] out, int from, int to) {
+        switch (operation) {
+            case ADD -> {
+                for (int i = from; i < to; i++) out[i] = a[i] + b[i];
+            }
+            case SUBTRACT -> {
+                for (int i = from; i < to; i++) out[i] = a[i] - b[i];
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) out[i] = a[i] * b[i];
+            }
+            case DIVIDE -> {
+                for (int i = from; i < to; i++) out[i] = a[i] / b[i];
+            }
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+}
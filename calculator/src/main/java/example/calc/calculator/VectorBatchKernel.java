@@ -0,0 +1,35 @@
+package example.calc.calculator;
+
+import example.demo.shared.proto.CalculatorOuterClass;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BatchKernel} on the incubating Vector API, processing as many lanes per instruction as the CPU's preferred
+ * vector width allows, with a scalar loop for the tail. Only loaded when the {@code jdk.incubator.vector} module is
+ * present, see {@link BatchKernel#create()}.
+ */
+final class VectorBatchKernel implements BatchKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void apply(CalculatorOuterClass.CalculatorRequest.Operation operation, double[] a, double[] b, double[] out, int length) {
+        VectorOperators.Binary lanewise = switch (operation) {
+            case ADD -> VectorOperators.ADD;
+            case SUBTRACT -> VectorOperators.SUB;
+            case MULTIPLY -> VectorOperators.MUL;
+            case DIVIDE -> VectorOperators.DIV;
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+
+        int i = 0;
+        for (int upperBound = SPECIES.loopBound(length); i < upperBound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i)
+                    .lanewise(lanewise, DoubleVector.fromArray(SPECIES, b, i))
+                    .intoArray(out, i);
+        }
+        ScalarBatchKernel.apply(operation, a, b, out, i, length);
+    }
+}
@@ -0,0 +1,102 @@
+package example.calc.calculator;
+
+import example.demo.shared.proto.CalculatorOuterClass;
+import example.demo.shared.proto.CalculatorOuterClass.CalculatorRequest.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculatorServiceTest {
+
+    private static CalculatorOuterClass.ProgramRequest program(Object... steps) {
+        CalculatorOuterClass.ProgramRequest.Builder builder = CalculatorOuterClass.ProgramRequest.newBuilder();
+        for (Object step : steps) {
+            if (step instanceof Operation operation) {
+                builder.addStepsBuilder().setOperation(operation);
+            } else if (step instanceof String ref) {
+                builder.addStepsBuilder().setRef(Integer.parseInt(ref.substring(1)));
+            } else {
+                builder.addStepsBuilder().setOperand(((Number) step).doubleValue());
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    void runProgram() {
+        // 4 * 9 - 6 + 3
+        var response = CalculatorService.runProgram(program(4, 9, Operation.MULTIPLY, 6, Operation.SUBTRACT, 3, Operation.ADD));
+        assertTrue(response.hasResult());
+        assertEquals(33.0, response.getResult());
+    }
+
+    @Test
+    void runProgramResolvesRefs() {
+        // 3 4 * @2 +  ==  3*4 + 3*4
+        var response = CalculatorService.runProgram(program(3, 4, Operation.MULTIPLY, "@2", Operation.ADD));
+        assertEquals(24.0, response.getResult());
+
+        var forward = CalculatorService.runProgram(program(3, "@2", Operation.ADD));
+        assertEquals(CalculatorOuterClass.ProgramError.Code.MALFORMED_PROGRAM, forward.getError().getCode());
+    }
+
+    @Test
+    void runProgramReportsFailingStep() {
+        var response = CalculatorService.runProgram(program(1, 2, Operation.ADD, 0, Operation.DIVIDE));
+        assertTrue(response.hasError());
+        assertEquals(CalculatorOuterClass.ProgramError.Code.DIVISION_BY_ZERO, response.getError().getCode());
+        assertEquals(4, response.getError().getStepIndex());
+    }
+
+    @Test
+    void runProgramReportsStackUnderflow() {
+        var response = CalculatorService.runProgram(program(1, Operation.ADD));
+        assertEquals(CalculatorOuterClass.ProgramError.Code.STACK_UNDERFLOW, response.getError().getCode());
+        assertEquals(1, response.getError().getStepIndex());
+    }
+
+    @Test
+    void runBatchGroupsByOperationAndReportsFailures() {
+        var request = CalculatorOuterClass.BatchRequest.newBuilder()
+                .addA(1).addB(2).addOperation(Operation.ADD)
+                .addA(6).addB(0).addOperation(Operation.DIVIDE)
+                .addA(3).addB(4).addOperation(Operation.MULTIPLY)
+                .addA(9).addB(3).addOperation(Operation.DIVIDE)
+                .addA(5).addB(7).addOperation(Operation.SUBTRACT)
+                .build();
+
+        for (BatchKernel kernel : List.of(new ScalarBatchKernel(), BatchKernel.create())) {
+            var response = CalculatorService.runBatch(request, kernel);
+            assertEquals(5, response.getResultCount());
+            assertEquals(3.0, response.getResult(0));
+            assertTrue(Double.isNaN(response.getResult(1)));
+            assertEquals(12.0, response.getResult(2));
+            assertEquals(3.0, response.getResult(3));
+            assertEquals(-2.0, response.getResult(4));
+            assertEquals(List.of(1), response.getFailedIndexList());
+        }
+    }
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        // longer than any vector width, so both the vector loop and the scalar tail run
+        int length = 37;
+        double[] a = new double[length];
+        double[] b = new double[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = i * 1.5;
+            b[i] = i + 1;
+        }
+        for (Operation operation : List.of(Operation.ADD, Operation.SUBTRACT, Operation.MULTIPLY, Operation.DIVIDE)) {
+            double[] scalar = new double[length];
+            double[] vector = new double[length];
+            new ScalarBatchKernel().apply(operation, a, b, scalar, length);
+            new VectorBatchKernel().apply(operation, a, b, vector, length);
+            assertArrayEquals(scalar, vector);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package example.calc.colocated;
+
+import example.calc.calculator.CalculatorApplication;
+import example.calc.tokenizer.TokenizerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * Boots the tokenizer, evaluator and calculator in one JVM.
+ * <p>
+ * gRPC hops go over grpc-java's in-process transport (see {@code grpc.server.in-process-name} and the
+ * {@code in-process:} client addresses in application.properties) and the {@code /tokenize} REST hop is replaced by
+ * {@link InProcessTokenizerClient}. The EvaluatorApplication configuration is picked up by the scan because it
+ * declares the gRPC interceptors and channel configurer. TokenizerApplication is excluded because its
+ * {@code grpcServerInterceptor} bean has the same name as the evaluator's and would clash with it, and
+ * CalculatorApplication because it declares nothing the evaluator's configuration does not already cover.
+ */
+@SpringBootApplication
+@ComponentScan(
+        basePackages = {"example.calc.colocated", "example.calc.tokenizer", "example.calc.evaluator",
+                "example.calc.calculator", "example.demo.shared"},
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {CalculatorApplication.class, TokenizerApplication.class})
+)
+public class ColocatedApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ColocatedApplication.class, args);
+    }
+}
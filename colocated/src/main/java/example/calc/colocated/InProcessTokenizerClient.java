@@ -0,0 +1,51 @@
+package example.calc.colocated;
+
+import example.calc.evaluator.TokenizerClient;
+import example.calc.tokenizer.TokenizationService;
+import example.demo.shared.domain.PostfixTape;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Calls the tokenizer directly instead of over HTTP. Wrapped in an observation so the hop still shows up as its own
+ * span and timer.
+ */
+@Primary
+@Component
+public class InProcessTokenizerClient implements TokenizerClient {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final TokenizationService tokenizationService;
+    private final ObservationRegistry observationRegistry;
+    private final ExecutorService executor;
+
+    public InProcessTokenizerClient(TokenizationService tokenizationService, ObservationRegistry observationRegistry,
+                                    ExecutorService executor) {
+        this.tokenizationService = tokenizationService;
+        this.observationRegistry = observationRegistry;
+        this.executor = executor;
+    }
+
+    @Override
+    public PostfixTape tokenize(String expression) {
+        return Observation.createNotStarted("tokenizer.inprocess", observationRegistry)
+                .contextualName("tokenize")
+                .observe(() -> tokenizationService.tokenize(expression).tape());
+    }
+
+    /**
+     * Runs on the evaluator's executor, with the caller's tracing context. Tokenizing includes the tokenizer's injected
+     * latency, a sleep by default, which would otherwise hold the thread that completed the previous stage.
+     */
+    @Override
+    public CompletableFuture<PostfixTape> tokenizeAsync(String expression) {
+        return CompletableFuture.supplyAsync(() -> tokenize(expression), SNAPSHOTS.captureAll().wrapExecutor(executor));
+    }
+}
@@ -0,0 +1,13 @@
+package example.calc.colocated;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ColocatedApplicationTests {
+
+    @Test
+    void contextLoads() {
+    }
+
+}
@@ -0,0 +1,83 @@
+package example.calc.evaluator;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import example.demo.shared.latency.LatencyInjector;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Helpers for the {@link EvaluationPipeline#ASYNC} pipeline.
+ * <p>
+ * Stages of an async evaluation complete on whichever thread delivered the previous response, where the tracing
+ * context of the request is not set. Each helper therefore captures the context when a call is issued and restores
+ * it while the call's completion runs, so the next call issued from there is traced as part of the same request.
+ */
+final class AsyncCalls {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private AsyncCalls() {
+    }
+
+    /**
+     * Adapts a gRPC future stub's result. Cancelling the returned future cancels the call.
+     */
+    static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, withContext(MoreExecutors.directExecutor()));
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Completes {@code future}'s dependent stages with the caller's context restored.
+     */
+    static <T> CompletableFuture<T> withContext(CompletableFuture<T> future) {
+        return future.thenApplyAsync(result -> result, withContext(MoreExecutors.directExecutor()));
+    }
+
+    /**
+     * Injected latency without holding a thread while it sleeps; see {@link LatencyInjector.Endpoint#injectAsync}.
+     */
+    static CompletableFuture<Void> delay(LatencyInjector.Endpoint latency, Executor executor) {
+        return latency.injectAsync(withContext(executor));
+    }
+
+    private static Executor withContext(Executor executor) {
+        ContextSnapshot snapshot = SNAPSHOTS.captureAll();
+        return snapshot.wrapExecutor(executor);
+    }
+
+    /**
+     * @return the exception a failed stage was completed with, without the {@link CompletionException} wrapper
+     */
+    static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+    }
+}
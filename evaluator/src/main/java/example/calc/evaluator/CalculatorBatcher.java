@@ -0,0 +1,176 @@
+package example.calc.evaluator;
+
+import example.demo.shared.exceptions.DivisionByZeroException;
+import example.demo.shared.proto.CalculatorOuterClass;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent {@code calculate} calls, across all in-flight evaluations, into columnar
+ * {@code calculateBatch} RPCs.
+ * <p>
+ * A batch is sent as soon as it holds {@code maxSize} operations, or {@code window} after its first operation
+ * arrived, whichever comes first. Each caller blocks, cheaply on a virtual thread, until its own result is back.
+ * The window trades added queueing delay for fewer round trips; both are recorded so it can be tuned.
+ */
+@Slf4j
+class CalculatorBatcher implements AutoCloseable {
+
+    private final Function<CalculatorOuterClass.BatchRequest, CalculatorOuterClass.BatchResponse> sender;
+    private final int maxSize;
+    private final long windowNanos;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // the batch being filled, guarded by lock; replaced by a new list once sent
+    private List<Pending> pending;
+
+    CalculatorBatcher(EvaluatorProperties.Batch properties,
+                      Function<CalculatorOuterClass.BatchRequest, CalculatorOuterClass.BatchResponse> sender,
+                      ExecutorService executor,
+                      MeterRegistry registry) {
+        this.sender = sender;
+        this.maxSize = properties.getMaxSize();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.executor = executor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("calculator-batcher").factory());
+        this.pending = new ArrayList<>(maxSize);
+        this.batchSize = DistributionSummary.builder("evaluator.batch.size")
+                .description("Operations per calculateBatch call")
+                .baseUnit("operations")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.queueDelay = Timer.builder("evaluator.batch.queue.delay")
+                .description("Time an operation waited for its batch to be sent")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    double calculate(CalculatorOuterClass.CalculatorRequest.Operation operation, double a, double b) {
+        Pending call = new Pending(operation, a, b, System.nanoTime());
+        List<Pending> full = null;
+
+        lock.lock();
+        try {
+            List<Pending> batch = pending;
+            batch.add(call);
+            if (batch.size() == 1) {
+                timer.schedule(() -> windowElapsed(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            if (batch.size() >= maxSize) {
+                full = batch;
+                pending = new ArrayList<>(maxSize);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        try {
+            return call.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void windowElapsed(List<Pending> batch) {
+        lock.lock();
+        try {
+            if (pending != batch) {
+                // already sent because it filled up
+                return;
+            }
+            pending = new ArrayList<>(maxSize);
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(() -> send(batch));
+    }
+
+    private void send(List<Pending> batch) {
+        final int size = batch.size();
+        final long now = System.nanoTime();
+        batchSize.record(size);
+
+        CalculatorOuterClass.BatchRequest.Builder request = CalculatorOuterClass.BatchRequest.newBuilder();
+        for (Pending call : batch) {
+            queueDelay.record(now - call.enqueuedNanos, TimeUnit.NANOSECONDS);
+            request.addA(call.a).addB(call.b).addOperation(call.operation);
+        }
+
+        try {
+            CalculatorOuterClass.BatchResponse response = sender.apply(request.build());
+            if (response.getResultCount() != size) {
+                throw new IllegalStateException("calculateBatch returned " + response.getResultCount()
+                        + " results for " + size + " operations");
+            }
+            int failure = 0;
+            for (int i = 0; i < size; i++) {
+                Pending call = batch.get(i);
+                if (failure < response.getFailedIndexCount() && response.getFailedIndex(failure) == i) {
+                    call.result.completeExceptionally(failure(call, response.getError(failure)));
+                    failure++;
+                } else {
+                    call.result.complete(response.getResult(i));
+                }
+            }
+        } catch (Throwable e) {
+            // every caller waits on its result without a timeout, so none may be left incomplete; results that
+            // were already handed out are not affected
+            batch.forEach(call -> call.result.completeExceptionally(e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private static RuntimeException failure(Pending call, String error) {
+        log.error("Batched calculation failed: {}", error);
+        if (call.operation == CalculatorOuterClass.CalculatorRequest.Operation.DIVIDE && call.b == 0) {
+            return new DivisionByZeroException("Division by zero error: " + error);
+        }
+        return new IllegalArgumentException("Invalid operation error: " + error);
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private static final class Pending {
+        private final CalculatorOuterClass.CalculatorRequest.Operation operation;
+        private final double a;
+        private final double b;
+        private final long enqueuedNanos;
+        private final CompletableFuture<Double> result = new CompletableFuture<>();
+
+        Pending(CalculatorOuterClass.CalculatorRequest.Operation operation, double a, double b, long enqueuedNanos) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package example.calc.evaluator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import example.demo.shared.breakdown.LatencyBreakdown;
+import example.demo.shared.cache.OperationCache;
+import example.demo.shared.cache.OperationCacheProperties;
+import example.demo.shared.exceptions.DivisionByZeroException;
+import example.demo.shared.proto.CalculatorGrpc;
+import example.demo.shared.proto.CalculatorOuterClass;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Thin wrapper around the calculator gRPC stub, shared by all evaluation modes so that error mapping
+ * happens in one place.
+ */
+@Slf4j
+@Component
+public class CalculatorClient {
+
+    @GrpcClient("calculator-service")
+    private CalculatorGrpc.CalculatorBlockingStub calculatorStub;
+
+    @GrpcClient("calculator-service")
+    private CalculatorGrpc.CalculatorFutureStub calculatorFutureStub;
+
+    private final OperationCache cache;
+    private final CalculatorBatcher batcher;
+    private final CalculatorEndpointPool endpointPool;
+    private final Hedger hedger;
+    private final EvaluationMetrics metrics;
+
+    public CalculatorClient(OperationCacheProperties cacheProperties,
+                            EvaluatorProperties evaluatorProperties,
+                            CalculatorEndpointPool endpointPool,
+                            RetryBudget retryBudget,
+                            ExecutorService executor,
+                            EvaluationMetrics metrics,
+                            MeterRegistry registry) {
+        this.endpointPool = endpointPool;
+        this.metrics = metrics;
+        this.hedger = evaluatorProperties.getHedging().isEnabled()
+                ? new Hedger("calculator", evaluatorProperties.getHedging(), retryBudget, executor, registry,
+                        e -> e instanceof StatusRuntimeException sre && sre.getStatus().getCode() == Status.Code.UNAVAILABLE)
+                : null;
+        this.cache = OperationCache.create("evaluator.calculator.operations", cacheProperties, false, registry);
+        this.batcher = evaluatorProperties.getBatch().isEnabled()
+                ? new CalculatorBatcher(evaluatorProperties.getBatch(), this::calculateBatch, executor, registry)
+                : null;
+    }
+
+    public double calculate(CalculatorOuterClass.CalculatorRequest.Operation operation, double a, double b) {
+        if (cache != null) {
+            long cached = cache.lookup(operation.getNumber(), a, b);
+            if (cached != OperationCache.MISS) {
+                return Double.longBitsToDouble(cached);
+            }
+        }
+
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        final double result;
+        try {
+            result = batcher != null ? batcher.calculate(operation, a, b) : calculateUnary(operation, a, b);
+        } finally {
+            metrics.calculation(operation, System.nanoTime() - start, breakdown);
+        }
+        if (cache != null) {
+            cache.put(operation.getNumber(), a, b, result);
+        }
+        return result;
+    }
+
+    private double calculateUnary(CalculatorOuterClass.CalculatorRequest.Operation operation, double a, double b) {
+        CalculatorOuterClass.CalculatorRequest request = CalculatorOuterClass.CalculatorRequest.newBuilder()
+                .setA(a)
+                .setB(b)
+                .setOperation(operation)
+                .build();
+
+        try {
+            return call(stub -> stub.calculate(request)).getResult();
+        } catch (StatusRuntimeException e) {
+            // Handle gRPC-specific exceptions
+            throw handleGrpcException(e, operation, b);
+        }
+    }
+
+    /**
+     * Non-blocking {@link #calculate} for the {@link EvaluationPipeline#ASYNC} pipeline. Calls are neither batched
+     * nor hedged.
+     */
+    public CompletableFuture<Double> calculateAsync(CalculatorOuterClass.CalculatorRequest.Operation operation,
+                                                    double a, double b) {
+        if (cache != null) {
+            long cached = cache.lookup(operation.getNumber(), a, b);
+            if (cached != OperationCache.MISS) {
+                return CompletableFuture.completedFuture(Double.longBitsToDouble(cached));
+            }
+        }
+
+        CalculatorOuterClass.CalculatorRequest request = CalculatorOuterClass.CalculatorRequest.newBuilder()
+                .setA(a)
+                .setB(b)
+                .setOperation(operation)
+                .build();
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        return sendAsync(stub -> stub.calculate(request)).handle((response, error) -> {
+            metrics.calculation(operation, System.nanoTime() - start, breakdown);
+            if (error != null) {
+                RuntimeException cause = AsyncCalls.unwrap(error);
+                throw cause instanceof StatusRuntimeException e ? handleGrpcException(e, operation, b) : cause;
+            }
+            if (cache != null) {
+                cache.put(operation.getNumber(), a, b, response.getResult());
+            }
+            return response.getResult();
+        });
+    }
+
+    public CompletableFuture<CalculatorOuterClass.ProgramResponse> evaluateProgramAsync(
+            CalculatorOuterClass.ProgramRequest program) {
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        return sendAsync(stub -> stub.evaluateProgram(program)).handle((response, error) -> {
+            metrics.program(System.nanoTime() - start, breakdown);
+            if (error != null) {
+                RuntimeException cause = AsyncCalls.unwrap(error);
+                if (cause instanceof StatusRuntimeException e) {
+                    log.error("gRPC error during program evaluation: {}", e.getStatus().getDescription());
+                    throw new RuntimeException("Unexpected error from calculator service: " + e.getStatus().getDescription());
+                }
+                throw cause;
+            }
+            return response;
+        });
+    }
+
+    public CalculatorOuterClass.ProgramResponse evaluateProgram(CalculatorOuterClass.ProgramRequest program) {
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        try {
+            return call(stub -> stub.evaluateProgram(program));
+        } catch (StatusRuntimeException e) {
+            log.error("gRPC error during program evaluation: {}", e.getStatus().getDescription());
+            throw new RuntimeException("Unexpected error from calculator service: " + e.getStatus().getDescription());
+        } finally {
+            metrics.program(System.nanoTime() - start, breakdown);
+        }
+    }
+
+    public CalculatorOuterClass.BatchResponse calculateBatch(CalculatorOuterClass.BatchRequest batch) {
+        long start = System.nanoTime();
+        try {
+            return call(stub -> stub.calculateBatch(batch));
+        } catch (StatusRuntimeException e) {
+            log.error("gRPC error during batch calculation: {}", e.getStatus().getDescription());
+            throw new RuntimeException("Unexpected error from calculator service: " + e.getStatus().getDescription());
+        } finally {
+            metrics.batch(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sends a call to the balanced calculator replicas when {@code evaluator.calculator.endpoints} is set, otherwise
+     * to the {@code calculator-service} channel, hedged when {@code evaluator.hedging.enabled} is set.
+     */
+    private <T> T call(Function<CalculatorGrpc.CalculatorBlockingStub, T> call) {
+        if (hedger != null) {
+            return hedger.call(() -> send(call));
+        }
+        return send(call);
+    }
+
+    private <T> T send(Function<CalculatorGrpc.CalculatorBlockingStub, T> call) {
+        return endpointPool.isEnabled() ? endpointPool.call(call) : call.apply(calculatorStub);
+    }
+
+    private <T> CompletableFuture<T> sendAsync(Function<CalculatorGrpc.CalculatorFutureStub, ListenableFuture<T>> call) {
+        if (endpointPool.isEnabled()) {
+            return endpointPool.callAsync(call);
+        }
+        try {
+            return AsyncCalls.toCompletableFuture(call.apply(calculatorFutureStub));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    /**
+     * @param opcode a {@link example.demo.shared.domain.PostfixTape} operator opcode, i.e. the operator character
+     */
+    public static CalculatorOuterClass.CalculatorRequest.Operation mapOperator(byte opcode) {
+        return switch (opcode) {
+            case '+' -> CalculatorOuterClass.CalculatorRequest.Operation.ADD;
+            case '-' -> CalculatorOuterClass.CalculatorRequest.Operation.SUBTRACT;
+            case '*' -> CalculatorOuterClass.CalculatorRequest.Operation.MULTIPLY;
+            case '/' -> CalculatorOuterClass.CalculatorRequest.Operation.DIVIDE;
+            default -> throw new IllegalArgumentException("Unknown operator: " + (char) opcode);
+        };
+    }
+
+    private RuntimeException handleGrpcException(StatusRuntimeException e,
+                                                 CalculatorOuterClass.CalculatorRequest.Operation operation, double b) {
+        log.error("gRPC error during evaluation: {}", e.getStatus().getDescription());
+        if (e.getStatus().getCode() == Status.Code.INVALID_ARGUMENT) {
+            if (operation == CalculatorOuterClass.CalculatorRequest.Operation.DIVIDE && b == 0) {
+                return new DivisionByZeroException("Division by zero error: " + e.getStatus().getDescription());
+            }
+            return new IllegalArgumentException("Invalid operation error: " + e.getStatus().getDescription());
+        }
+        return new RuntimeException("Unexpected error from calculator service: " + e.getStatus().getDescription());
+    }
+}
@@ -0,0 +1,115 @@
+package example.calc.evaluator;
+
+import example.demo.shared.proto.CalculatorGrpc;
+import io.grpc.ManagedChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One calculator replica in a {@link CalculatorEndpointPool}: its channel, load and health.
+ */
+class CalculatorEndpoint {
+
+    private final String address;
+    private final ManagedChannel channel;
+    private final CalculatorGrpc.CalculatorBlockingStub stub;
+    private final CalculatorGrpc.CalculatorFutureStub futureStub;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final Timer latency;
+    private final Counter ejections;
+
+    // set by the health checker, true until the first check says otherwise
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntilNanos;
+    private int ejectionCount;
+
+    CalculatorEndpoint(String address, ManagedChannel channel, MeterRegistry registry) {
+        this.address = address;
+        this.channel = channel;
+        this.stub = CalculatorGrpc.newBlockingStub(channel);
+        this.futureStub = CalculatorGrpc.newFutureStub(channel);
+        this.ejectedUntilNanos = System.nanoTime();
+        Tags tags = Tags.of("endpoint", address);
+        registry.gauge("evaluator.calculator.endpoint.inflight", tags, inFlight);
+        registry.gauge("evaluator.calculator.endpoint.available", tags, this, endpoint -> endpoint.isAvailable() ? 1 : 0);
+        this.latency = Timer.builder("evaluator.calculator.endpoint.latency")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.ejections = Counter.builder("evaluator.calculator.endpoint.ejections")
+                .tags(tags)
+                .register(registry);
+    }
+
+    String address() {
+        return address;
+    }
+
+    ManagedChannel channel() {
+        return channel;
+    }
+
+    CalculatorGrpc.CalculatorBlockingStub stub() {
+        return stub;
+    }
+
+    CalculatorGrpc.CalculatorFutureStub futureStub() {
+        return futureStub;
+    }
+
+    AtomicInteger inFlight() {
+        return inFlight;
+    }
+
+    Timer latency() {
+        return latency;
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    boolean isAvailable() {
+        return healthy && System.nanoTime() - ejectedUntilNanos >= 0;
+    }
+
+    boolean isEjected() {
+        return System.nanoTime() - ejectedUntilNanos < 0;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * @return the number of consecutive failures including this one
+     */
+    int recordFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * Ejects this endpoint for {@code baseNanos} times the number of times it has been ejected so far, so a
+     * repeatedly failing replica stays out longer.
+     */
+    synchronized void eject(long baseNanos, long maxNanos) {
+        ejectionCount++;
+        ejectedUntilNanos = System.nanoTime() + Math.min(baseNanos * ejectionCount, maxNanos);
+        consecutiveFailures.set(0);
+        ejections.increment();
+    }
+
+    @Override
+    public String toString() {
+        return address;
+    }
+}
@@ -0,0 +1,213 @@
+package example.calc.evaluator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import example.demo.shared.proto.CalculatorGrpc;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Client-side load balancing over several calculator replicas listed in {@code evaluator.calculator.endpoints}.
+ * With no endpoints listed the pool is disabled and {@link CalculatorClient} uses the single
+ * {@code calculator-service} channel as before.
+ * <p>
+ * Every endpoint gets its own channel, built with the application's {@link GrpcChannelConfigurer}s so calls are
+ * traced and run on the same executor as the {@code calculator-service} channel. Endpoints are taken out of rotation
+ * when the gRPC health service reports them as not serving, and ejected for a while after a run of consecutive
+ * transport failures (outlier ejection). If nothing is available, all endpoints are used rather than failing fast.
+ */
+@Slf4j
+@Component
+public class CalculatorEndpointPool {
+
+    private static final String CHANNEL_NAME = "calculator-service";
+
+    private final List<CalculatorEndpoint> endpoints;
+    private final LoadBalancing balancing;
+    private final EvaluatorProperties.Ejection ejection;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public CalculatorEndpointPool(EvaluatorProperties evaluatorProperties,
+                                  ObjectProvider<GrpcChannelConfigurer> channelConfigurers,
+                                  MeterRegistry registry) {
+        EvaluatorProperties.CalculatorEndpoints properties = evaluatorProperties.getCalculator();
+        this.balancing = properties.getBalancing();
+        this.ejection = properties.getEjection();
+        this.endpoints = new ArrayList<>();
+        for (String address : properties.getEndpoints()) {
+            ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forTarget(address).usePlaintext();
+            channelConfigurers.orderedStream().forEach(configurer -> configurer.accept(builder, CHANNEL_NAME));
+            endpoints.add(new CalculatorEndpoint(address, builder.build(), registry));
+        }
+
+        if (endpoints.isEmpty()) {
+            this.healthChecker = null;
+        } else {
+            log.info("Balancing calculator calls over {} using {}", endpoints, balancing);
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("calculator-health").factory());
+            long interval = properties.getHealthCheckInterval().toMillis();
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return !endpoints.isEmpty();
+    }
+
+    List<CalculatorEndpoint> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Runs {@code call} against the stub of one endpoint, tracking its load and latency.
+     */
+    public <T> T call(Function<CalculatorGrpc.CalculatorBlockingStub, T> call) {
+        CalculatorEndpoint endpoint = choose();
+        endpoint.inFlight().incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result = call.apply(endpoint.stub());
+            endpoint.recordSuccess();
+            return result;
+        } catch (StatusRuntimeException e) {
+            if (isTransportFailure(e.getStatus().getCode())) {
+                recordFailure(endpoint);
+            } else {
+                // e.g. INVALID_ARGUMENT for a division by zero: the replica is fine
+                endpoint.recordSuccess();
+            }
+            throw e;
+        } finally {
+            endpoint.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            endpoint.inFlight().decrementAndGet();
+        }
+    }
+
+    /**
+     * Async counterpart of {@link #call}, with the future stub of one endpoint.
+     */
+    public <T> CompletableFuture<T> callAsync(Function<CalculatorGrpc.CalculatorFutureStub, ListenableFuture<T>> call) {
+        CalculatorEndpoint endpoint = choose();
+        endpoint.inFlight().incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = AsyncCalls.toCompletableFuture(call.apply(endpoint.futureStub()));
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            endpoint.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            endpoint.inFlight().decrementAndGet();
+            if (error != null && AsyncCalls.unwrap(error) instanceof StatusRuntimeException e
+                    && isTransportFailure(e.getStatus().getCode())) {
+                recordFailure(endpoint);
+            } else {
+                endpoint.recordSuccess();
+            }
+        });
+    }
+
+    CalculatorEndpoint choose() {
+        List<CalculatorEndpoint> candidates = new ArrayList<>(endpoints.size());
+        for (CalculatorEndpoint endpoint : endpoints) {
+            if (endpoint.isAvailable()) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = endpoints;
+        }
+        if (candidates.size() == 1) {
+            return candidates.getFirst();
+        }
+
+        return switch (balancing) {
+            case ROUND_ROBIN -> candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+            case LEAST_OUTSTANDING -> {
+                // start at a random offset so ties do not all go to the first endpoint
+                int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+                CalculatorEndpoint least = null;
+                for (int i = 0; i < candidates.size(); i++) {
+                    CalculatorEndpoint endpoint = candidates.get((offset + i) % candidates.size());
+                    if (least == null || endpoint.inFlight().get() < least.inFlight().get()) {
+                        least = endpoint;
+                    }
+                }
+                yield least;
+            }
+            case POWER_OF_TWO -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(candidates.size());
+                int second = (first + 1 + random.nextInt(candidates.size() - 1)) % candidates.size();
+                CalculatorEndpoint a = candidates.get(first);
+                CalculatorEndpoint b = candidates.get(second);
+                yield a.inFlight().get() <= b.inFlight().get() ? a : b;
+            }
+        };
+    }
+
+    void recordFailure(CalculatorEndpoint endpoint) {
+        if (endpoint.recordFailure() < ejection.getConsecutiveFailures()) {
+            return;
+        }
+        long ejected = endpoints.stream().filter(CalculatorEndpoint::isEjected).count();
+        if ((ejected + 1) * 100 > (long) endpoints.size() * ejection.getMaxEjectedPercent()) {
+            log.warn("Not ejecting calculator endpoint {}: {} of {} already ejected", endpoint, ejected, endpoints.size());
+            return;
+        }
+        log.warn("Ejecting calculator endpoint {} after {} consecutive failures", endpoint, ejection.getConsecutiveFailures());
+        endpoint.eject(ejection.getBaseTime().toNanos(), ejection.getMaxTime().toNanos());
+    }
+
+    private static boolean isTransportFailure(Status.Code code) {
+        return code == Status.Code.UNAVAILABLE || code == Status.Code.DEADLINE_EXCEEDED || code == Status.Code.INTERNAL;
+    }
+
+    private void checkHealth() {
+        for (CalculatorEndpoint endpoint : endpoints) {
+            boolean healthy;
+            try {
+                HealthCheckResponse response = HealthGrpc.newBlockingStub(endpoint.channel())
+                        .withDeadlineAfter(1, TimeUnit.SECONDS)
+                        .check(HealthCheckRequest.getDefaultInstance());
+                healthy = response.getStatus() == HealthCheckResponse.ServingStatus.SERVING;
+            } catch (StatusRuntimeException e) {
+                healthy = false;
+            }
+            if (healthy != endpoint.isHealthy()) {
+                log.info("Calculator endpoint {} is {}", endpoint, healthy ? "healthy" : "unhealthy");
+            }
+            endpoint.setHealthy(healthy);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        endpoints.forEach(endpoint -> endpoint.channel().shutdown());
+    }
+}
@@ -0,0 +1,114 @@
+package example.calc.evaluator;
+
+import example.demo.shared.breakdown.LatencyBreakdown;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.proto.CalculatorOuterClass;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage meters of an evaluation, with percentile histograms, so the Prometheus registry attaches trace
+ * exemplars to their buckets. Each stage is also added to the request's {@link LatencyBreakdown}, when there is one.
+ */
+@Component
+public class EvaluationMetrics {
+
+    static final String PROGRAM = "PROGRAM";
+    static final String BATCH = "BATCH";
+
+    private final Timer tokenize;
+    private final Map<CalculatorOuterClass.CalculatorRequest.Operation, Timer> operations =
+            new EnumMap<>(CalculatorOuterClass.CalculatorRequest.Operation.class);
+    private final Timer program;
+    private final Timer batch;
+    private final Map<EvaluationMode, Timer> evaluations = new EnumMap<>(EvaluationMode.class);
+    private final DistributionSummary tokens;
+    private final DistributionSummary operators;
+
+    public EvaluationMetrics(MeterRegistry registry) {
+        this.tokenize = timer("evaluator.tokenize", "Tokenizer call, including hedges and retries").register(registry);
+        for (CalculatorOuterClass.CalculatorRequest.Operation operation : CalculatorOuterClass.CalculatorRequest.Operation.values()) {
+            if (operation != CalculatorOuterClass.CalculatorRequest.Operation.UNRECOGNIZED) {
+                operations.put(operation, calculatorTimer(operation.name(), registry));
+            }
+        }
+        this.program = calculatorTimer(PROGRAM, registry);
+        this.batch = calculatorTimer(BATCH, registry);
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            evaluations.put(mode, timer("evaluator.postfix.evaluation", "Evaluation of a postfix expression")
+                    .tag("mode", mode.name())
+                    .register(registry));
+        }
+        this.tokens = DistributionSummary.builder("evaluator.expression.tokens")
+                .description("Postfix tokens per expression")
+                .baseUnit("tokens")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.operators = DistributionSummary.builder("evaluator.expression.operators")
+                .description("Operators per expression")
+                .baseUnit("operators")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram();
+    }
+
+    private static Timer calculatorTimer(String operation, MeterRegistry registry) {
+        return timer("evaluator.calculator.call", "Calculator call, including batching, hedges and retries")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    void tokenize(long nanos, LatencyBreakdown breakdown) {
+        tokenize.record(nanos, TimeUnit.NANOSECONDS);
+        if (breakdown != null) {
+            breakdown.time("tokenize", nanos);
+        }
+    }
+
+    void expression(PostfixTape tape, LatencyBreakdown breakdown) {
+        tokens.record(tape.size());
+        operators.record(tape.operatorCount());
+        if (breakdown != null) {
+            breakdown.count("tokens", tape.size());
+            breakdown.count("operators", tape.operatorCount());
+        }
+    }
+
+    void calculation(CalculatorOuterClass.CalculatorRequest.Operation operation, long nanos, LatencyBreakdown breakdown) {
+        Timer timer = operations.get(operation);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (breakdown != null) {
+            breakdown.time("calculator", nanos);
+        }
+    }
+
+    void program(long nanos, LatencyBreakdown breakdown) {
+        program.record(nanos, TimeUnit.NANOSECONDS);
+        if (breakdown != null) {
+            breakdown.time("calculator", nanos);
+        }
+    }
+
+    // a batch mixes operations of several requests, so it only has a meter
+    void batch(long nanos) {
+        batch.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void evaluation(EvaluationMode mode, long nanos, LatencyBreakdown breakdown) {
+        evaluations.get(mode).record(nanos, TimeUnit.NANOSECONDS);
+        if (breakdown != null) {
+            breakdown.time("postfix", nanos);
+        }
+    }
+}
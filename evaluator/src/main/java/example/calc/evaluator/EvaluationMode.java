@@ -0,0 +1,15 @@
+package example.calc.evaluator;
+
+/**
+ * How {@link PostfixEvaluationService} hands a postfix expression to the calculator service.
+ */
+public enum EvaluationMode {
+    /** one unary {@code calculate} call per operator */
+    PER_OPERATOR,
+    /** the whole postfix program in a single {@code evaluateProgram} call */
+    PER_PROGRAM,
+    /** independent subtrees are sent to the calculator concurrently, one call per operator */
+    PARALLEL,
+    /** evaluated in-process by {@link ExpressionCompiler} without calling the calculator */
+    LOCAL
+}
@@ -0,0 +1,16 @@
+package example.calc.evaluator;
+
+/**
+ * How a unary {@code evaluate} call is carried through the tokenizer and calculator.
+ */
+public enum EvaluationPipeline {
+    /** one thread, normally virtual, blocks through every step of the request */
+    BLOCKING,
+    /**
+     * every step is a {@link java.util.concurrent.CompletableFuture} stage and no thread waits: the artificial delay
+     * is a timer, the tokenizer is called with an async HTTP client or the gRPC future stub, calculator calls use the
+     * future stub and the response is sent from the completing callback. Batching and hedging are blocking designs
+     * and are not applied on this path.
+     */
+    ASYNC
+}
@@ -0,0 +1,106 @@
+package example.calc.evaluator;
+
+import example.demo.shared.proto.Evaluate;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Server side of one {@code evaluateStream} call.
+ * <p>
+ * Inbound flow control is manual: at most {@code maxInFlight} expressions are requested from the client at a time,
+ * and another one is requested only after a result has been written and the outbound side is ready. A slow reader
+ * or a slow evaluation therefore pushes back on the client through gRPC flow control instead of piling up work.
+ */
+@Slf4j
+class EvaluationStream implements StreamObserver<Evaluate.EvaluateStreamRequest> {
+
+    private final ServerCallStreamObserver<Evaluate.EvaluateStreamResponse> responseObserver;
+    private final EvaluatorService evaluatorService;
+    private final ExecutorService executor;
+
+    // all mutable state is guarded by this
+    private int inFlight;
+    private int owedRequests;
+    private boolean halfClosed;
+    private boolean done;
+
+    EvaluationStream(ServerCallStreamObserver<Evaluate.EvaluateStreamResponse> responseObserver,
+                     EvaluatorService evaluatorService, ExecutorService executor, int maxInFlight) {
+        this.responseObserver = responseObserver;
+        this.evaluatorService = evaluatorService;
+        this.executor = executor;
+
+        responseObserver.disableAutoRequest();
+        responseObserver.setOnReadyHandler(this::onReady);
+        responseObserver.setOnCancelHandler(this::onCancel);
+        responseObserver.request(maxInFlight);
+    }
+
+    @Override
+    public void onNext(Evaluate.EvaluateStreamRequest request) {
+        synchronized (this) {
+            inFlight++;
+        }
+        executor.execute(() -> respond(evaluate(request)));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("evaluateStream cancelled by client: {}", t.getMessage());
+        onCancel();
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+        halfClosed = true;
+        completeIfDrained();
+    }
+
+    private Evaluate.EvaluateStreamResponse evaluate(Evaluate.EvaluateStreamRequest request) {
+        Evaluate.EvaluateStreamResponse.Builder response = Evaluate.EvaluateStreamResponse.newBuilder()
+                .setCorrelationId(request.getCorrelationId());
+        try {
+            response.setResult(evaluatorService.evaluate(request.getExpression()));
+        } catch (Throwable e) {
+            // whatever goes wrong, the expression must still get a response, or the stream never drains and completes
+            log.error("Error evaluating streamed expression {}", request.getCorrelationId(), e);
+            response.setError(String.valueOf(e.getMessage()));
+        }
+        return response.build();
+    }
+
+    private synchronized void respond(Evaluate.EvaluateStreamResponse response) {
+        inFlight--;
+        if (done) {
+            return;
+        }
+        responseObserver.onNext(response);
+        if (responseObserver.isReady()) {
+            responseObserver.request(1);
+        } else {
+            owedRequests++;
+        }
+        completeIfDrained();
+    }
+
+    private synchronized void onReady() {
+        if (!done && owedRequests > 0) {
+            responseObserver.request(owedRequests);
+            owedRequests = 0;
+        }
+    }
+
+    private synchronized void onCancel() {
+        done = true;
+    }
+
+    private void completeIfDrained() {
+        if (halfClosed && inFlight == 0 && !done) {
+            done = true;
+            responseObserver.onCompleted();
+        }
+    }
+}
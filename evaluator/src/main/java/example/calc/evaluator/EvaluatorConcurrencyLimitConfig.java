@@ -0,0 +1,17 @@
+package example.calc.evaluator;
+
+import example.demo.shared.limit.ConcurrencyLimitProperties;
+import example.demo.shared.limit.ConcurrencyLimitingServerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EvaluatorConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitingServerInterceptor evaluatorConcurrencyLimiter(ConcurrencyLimitProperties properties,
+                                                                            MeterRegistry registry) {
+        return ConcurrencyLimitingServerInterceptor.create("evaluator", properties, registry);
+    }
+}
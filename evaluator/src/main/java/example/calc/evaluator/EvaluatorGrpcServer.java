@@ -1,29 +1,46 @@
 package example.calc.evaluator;
 
+import example.demo.shared.logging.HotPathLog;
 import example.demo.shared.proto.Evaluate;
 import example.demo.shared.proto.EvaluateServiceGrpc;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
 @Slf4j
-@GrpcService
+@GrpcService(interceptorNames = {"evaluatorConcurrencyLimiter", "evaluatorLatencyBreakdown"})
 public class EvaluatorGrpcServer extends EvaluateServiceGrpc.EvaluateServiceImplBase {
 
     private final EvaluatorService evaluatorService;
     private final PostfixEvaluationService postfixEvaluationService;
+    private final ExecutorService executor;
+    private final EvaluatorProperties evaluatorProperties;
+    private final HotPathLog.Site requestLog;
 
-    public EvaluatorGrpcServer(EvaluatorService evaluatorService, PostfixEvaluationService postfixEvaluationService) {
+    public EvaluatorGrpcServer(EvaluatorService evaluatorService, PostfixEvaluationService postfixEvaluationService,
+                               ExecutorService executor, EvaluatorProperties evaluatorProperties,
+                               HotPathLog hotPathLog) {
         this.evaluatorService = evaluatorService;
         this.postfixEvaluationService = postfixEvaluationService;
+        this.executor = executor;
+        this.evaluatorProperties = evaluatorProperties;
+        this.requestLog = hotPathLog.site(log, "evaluate-request");
     }
 
     @Override
     public void evaluate(Evaluate.EvaluateRequest request, StreamObserver<Evaluate.EvaluateResponse> responseObserver) {
+        if (evaluatorProperties.getPipeline() == EvaluationPipeline.ASYNC) {
+            evaluateAsync(request, responseObserver);
+            return;
+        }
         try {
             String expression = request.getExpression();
-            log.info("Received evaluate request with expression: {}", expression);
+            requestLog.info("Received evaluate request with expression: {}", () -> expression);
 
             double result = evaluatorService.evaluate(expression);
 
@@ -41,4 +58,43 @@ public class EvaluatorGrpcServer extends EvaluateServiceGrpc.EvaluateServiceImpl
                     .asRuntimeException());
         }
     }
+
+    /**
+     * Returns as soon as the evaluation is started; the response is sent from the callback that completes it.
+     */
+    private void evaluateAsync(Evaluate.EvaluateRequest request, StreamObserver<Evaluate.EvaluateResponse> responseObserver) {
+        String expression = request.getExpression();
+        requestLog.info("Received evaluate request with expression: {}", () -> expression);
+
+        final CompletableFuture<Double> result;
+        try {
+            result = evaluatorService.evaluateAsync(expression);
+        } catch (RuntimeException e) {
+            log.error("Error processing gRPC evaluation request", e);
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                RuntimeException cause = AsyncCalls.unwrap(error);
+                log.error("Error processing gRPC evaluation request", cause);
+                responseObserver.onError(Status.INVALID_ARGUMENT
+                        .withDescription(cause.getMessage())
+                        .asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(Evaluate.EvaluateResponse.newBuilder()
+                    .setResult(value)
+                    .build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    @Override
+    public StreamObserver<Evaluate.EvaluateStreamRequest> evaluateStream(
+            StreamObserver<Evaluate.EvaluateStreamResponse> responseObserver) {
+        log.info("Opening evaluate stream");
+        return new EvaluationStream((ServerCallStreamObserver<Evaluate.EvaluateStreamResponse>) responseObserver,
+                evaluatorService, executor, evaluatorProperties.getStreamMaxInFlight());
+    }
 }
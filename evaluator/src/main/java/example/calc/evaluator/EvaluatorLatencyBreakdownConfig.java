@@ -0,0 +1,14 @@
+package example.calc.evaluator;
+
+import example.demo.shared.breakdown.LatencyBreakdownServerInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EvaluatorLatencyBreakdownConfig {
+
+    @Bean
+    public LatencyBreakdownServerInterceptor evaluatorLatencyBreakdown() {
+        return new LatencyBreakdownServerInterceptor();
+    }
+}
@@ -0,0 +1,99 @@
+package example.calc.evaluator;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "evaluator")
+public class EvaluatorProperties {
+
+    private EvaluationMode mode = EvaluationMode.PER_OPERATOR;
+    private EvaluationPipeline pipeline = EvaluationPipeline.BLOCKING;
+    // read through @ConditionalOnProperty by the TokenizerClient implementations, bound here for validation
+    private TokenizerTransport tokenizerTransport = TokenizerTransport.REST;
+    private ResultCache resultCache = new ResultCache();
+    // expressions evaluated concurrently per evaluateStream call before inbound flow control kicks in
+    private int streamMaxInFlight = 64;
+    private Compiler compiler = new Compiler();
+    private Batch batch = new Batch();
+    private CalculatorEndpoints calculator = new CalculatorEndpoints();
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class ResultCache {
+        private boolean enabled = false;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+        // how long failed evaluations that would fail again (invalid expression, division by zero) are remembered
+        private Duration negativeTtl = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Compiler {
+        // executions of one expression shape before it is compiled in LOCAL mode, 1 or less to compile right away
+        private int threshold = 50;
+        private long maximumShapes = 1_000;
+        // longer tapes are always interpreted, keeping method handle trees shallow
+        private int maxTokens = 255;
+    }
+
+    /**
+     * Coalescing of concurrent calculator calls into calculateBatch RPCs, see {@link CalculatorBatcher}.
+     */
+    @Data
+    public static class Batch {
+        private boolean enabled = false;
+        private int maxSize = 64;
+        private Duration window = Duration.ofNanos(200_000);
+    }
+
+    /**
+     * Calculator replicas to balance over, see {@link CalculatorEndpointPool}.
+     */
+    @Data
+    public static class CalculatorEndpoints {
+        // host:port of each replica; when empty, grpc.client.calculator-service is used
+        private List<String> endpoints = new ArrayList<>();
+        private LoadBalancing balancing = LoadBalancing.ROUND_ROBIN;
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+        private Ejection ejection = new Ejection();
+    }
+
+    @Data
+    public static class Ejection {
+        // UNAVAILABLE, DEADLINE_EXCEEDED or INTERNAL in a row before an endpoint is ejected
+        private int consecutiveFailures = 5;
+        // ejection time is base-time times the number of ejections so far, capped at max-time
+        private Duration baseTime = Duration.ofSeconds(30);
+        private Duration maxTime = Duration.ofMinutes(5);
+        private int maxEjectedPercent = 50;
+    }
+
+    /**
+     * Hedged requests and retries for calculator and tokenizer calls, see {@link Hedger}.
+     */
+    @Data
+    public static class Hedging {
+        private boolean enabled = false;
+        // a call is hedged once it has been outstanding longer than this percentile of recent latencies
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(1);
+        // retry once on UNAVAILABLE, or an I/O error from the tokenizer
+        private boolean retryUnavailable = true;
+        private Budget budget = new Budget();
+    }
+
+    @Data
+    public static class Budget {
+        // tokens earned per call; a hedge or a retry spends one, so in the long run at most this share is duplicated
+        private double ratio = 0.1;
+        // burst of hedges and retries allowed on top of that
+        private int capacity = 10;
+    }
+}
@@ -1,54 +1,98 @@
 package example.calc.evaluator;
 
-import example.demo.shared.Utils.Serdes;
-import example.demo.shared.domain.Token;
+import example.demo.shared.breakdown.LatencyBreakdown;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.logging.HotPathLog;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
-import java.util.List;
-
-import static example.demo.shared.Utils.Sleeper.sleep;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Slf4j
 @Service
 public class EvaluatorService {
 
-    private final Serdes serdes;
-    private final RestClient restClient;
+    private final TokenizerClient tokenizerClient;
     private final PostfixEvaluationService postfixEvaluationService;
+    private final ExpressionResultCache expressionResultCache;
+    private final ExecutorService executor;
+    private final LatencyInjector.Endpoint latency;
+    private final EvaluationMetrics metrics;
+    private final HotPathLog.Site tokensLog;
+    private final HotPathLog.Site resultLog;
 
 
-    public EvaluatorService(Serdes serdes, RestClient restClient, PostfixEvaluationService postfixEvaluationService) {
-        this.serdes = serdes;
-        this.restClient = restClient;
+    public EvaluatorService(TokenizerClient tokenizerClient,
+                            PostfixEvaluationService postfixEvaluationService,
+                            ExpressionResultCache expressionResultCache,
+                            ExecutorService executor,
+                            LatencyInjector latency,
+                            EvaluationMetrics metrics,
+                            HotPathLog hotPathLog) {
+        this.tokenizerClient = tokenizerClient;
         this.postfixEvaluationService = postfixEvaluationService;
+        this.expressionResultCache = expressionResultCache;
+        this.executor = executor;
+        this.latency = latency.endpoint("evaluate", Duration.ofMillis(100));
+        this.metrics = metrics;
+        this.tokensLog = hotPathLog.site(log, "evaluate-tokens");
+        this.resultLog = hotPathLog.site(log, "evaluate-result");
     }
 
     public Double evaluate(String expression) {
-        sleep(100);
+        return expressionResultCache.get(expression, this::evaluateUncached);
+    }
 
-        // Step 1: Tokenize the expression (REST call to Tokenize Service)
-        List<Token> tokens = tokenize(expression);
-        log.info("Expression Tokens: {}", serdes.serialize(tokens));
+    /**
+     * {@link #evaluate} for the {@link EvaluationPipeline#ASYNC} pipeline. Returns right away; no thread is held
+     * while waiting for the delay, the tokenizer or the calculator.
+     */
+    public CompletableFuture<Double> evaluateAsync(String expression) {
+        return expressionResultCache.getAsync(expression, this::evaluateUncachedAsync);
+    }
+
+    private CompletableFuture<Double> evaluateUncachedAsync(String expression) {
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        return AsyncCalls.delay(latency, executor)
+                .thenCompose(ignored -> {
+                    long start = System.nanoTime();
+                    return tokenizerClient.tokenizeAsync(expression)
+                            .whenComplete((tape, error) -> metrics.tokenize(System.nanoTime() - start, breakdown));
+                })
+                .thenCompose(tape -> {
+                    tokensLog.info("Expression Tokens: {}", () -> tape);
+                    metrics.expression(tape, breakdown);
+                    return postfixEvaluationService.evaluatePostfixAsync(tape);
+                })
+                .thenApply(result -> {
+                    resultLog.info("Evaluation Result: {}", () -> result);
+                    return result;
+                });
+    }
+
+    private double evaluateUncached(String expression) {
+        latency.inject();
+
+        // Step 1: Tokenize the expression (call to Tokenize Service)
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        final PostfixTape tape;
+        try {
+            tape = tokenizerClient.tokenize(expression);
+        } finally {
+            metrics.tokenize(System.nanoTime() - start, breakdown);
+        }
+        tokensLog.info("Expression Tokens: {}", () -> tape);
+        metrics.expression(tape, breakdown);
 
 
         // Step 2: Evaluate the tokens (Postfix)
-        assert tokens != null : "Tokens cannot be null";
-        final double result = postfixEvaluationService.evaluatePostfix(tokens);
-        log.info("Evaluation Result: {}", result);
+        assert tape != null : "Tokens cannot be null";
+        final double result = postfixEvaluationService.evaluatePostfix(tape);
+        resultLog.info("Evaluation Result: {}", () -> result);
         return result;
     }
-
-    private List<Token> tokenize(String expression) {
-        log.info("Current Thread: {}", Thread.currentThread());
-        return restClient
-                .post()
-                .uri("/tokenize")
-                .body(expression)
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {
-                }); // prevents type-erasure and helps Spring resolve the generic type (List<Token>) at runtime
-    }
-}
\ No newline at end of file
+}
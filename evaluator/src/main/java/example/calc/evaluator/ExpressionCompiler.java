@@ -0,0 +1,211 @@
+package example.calc.evaluator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.exceptions.DivisionByZeroException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates postfix tapes locally, compiling hot expression shapes into composed {@link MethodHandle} trees.
+ * <p>
+ * A shape is the opcode sequence of a tape ({@link PostfixTape#shape()}); the literals are not part of it but are read
+ * from the tape at run time, so {@code 1 + 2 * 3} and {@code 4 + 5 * 6} share one compiled handle. A shape is
+ * interpreted on a primitive stack until it has been seen {@code threshold} times (a threshold of 1 or less compiles
+ * it on its first execution), then compiled once into a handle
+ * of type {@code (PostfixTape)double} with no per-token dispatch and no operand stack. The handle comes out of a
+ * cache, so it is not a constant at the {@code invokeExact} call site and the JIT does not inline it into the caller;
+ * what it saves is the interpreter's loop and stack traffic, not the call. {@code LocalEvaluationBenchmark} measures
+ * how much that is worth.
+ * <p>
+ * A {@link PostfixTape#REF} reuses the handle of the subexpression it refers to, so the compiled code recalculates
+ * shared subexpressions instead of storing them; locally that is cheaper than the bookkeeping.
+ */
+@Slf4j
+@Component
+public class ExpressionCompiler {
+
+    private static final MethodType TAPE_TO_DOUBLE = MethodType.methodType(double.class, PostfixTape.class);
+    private static final MethodHandle OPERAND;
+    private static final MethodHandle ADD;
+    private static final MethodHandle SUBTRACT;
+    private static final MethodHandle MULTIPLY;
+    private static final MethodHandle DIVIDE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType binary = MethodType.methodType(double.class, double.class, double.class);
+            OPERAND = lookup.findVirtual(PostfixTape.class, "operand", MethodType.methodType(double.class, int.class));
+            ADD = lookup.findStatic(ExpressionCompiler.class, "add", binary);
+            SUBTRACT = lookup.findStatic(ExpressionCompiler.class, "subtract", binary);
+            MULTIPLY = lookup.findStatic(ExpressionCompiler.class, "multiply", binary);
+            DIVIDE = lookup.findStatic(ExpressionCompiler.class, "divide", binary);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int threshold;
+    private final int maxTokens;
+    private final Cache<String, Shape> shapes;
+    private final Counter compiledExecutions;
+    private final Counter interpretedExecutions;
+    private final Counter compilations;
+
+    public ExpressionCompiler(EvaluatorProperties evaluatorProperties, MeterRegistry registry) {
+        EvaluatorProperties.Compiler properties = evaluatorProperties.getCompiler();
+        this.threshold = properties.getThreshold();
+        this.maxTokens = properties.getMaxTokens();
+        this.shapes = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumShapes())
+                .build();
+        this.compiledExecutions = Counter.builder("evaluator.local.executions")
+                .tag("mode", "compiled")
+                .register(registry);
+        this.interpretedExecutions = Counter.builder("evaluator.local.executions")
+                .tag("mode", "interpreted")
+                .register(registry);
+        this.compilations = Counter.builder("evaluator.compiler.compilations")
+                .register(registry);
+        registry.gauge("evaluator.compiler.shapes", shapes, cache -> cache.estimatedSize());
+    }
+
+    public double evaluate(PostfixTape tape) {
+        Shape shape = shapes.get(tape.shape(), key -> new Shape());
+        MethodHandle compiled = shape.compiled;
+        if (compiled == null && shape.executions.incrementAndGet() >= threshold && tape.size() <= maxTokens) {
+            compiled = compile(shape, tape);
+        }
+
+        if (compiled == null) {
+            interpretedExecutions.increment();
+            return interpret(tape);
+        }
+        compiledExecutions.increment();
+        try {
+            return (double) compiled.invokeExact(tape);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Compiles the shape unless another execution that also reached the threshold already did.
+     */
+    private MethodHandle compile(Shape shape, PostfixTape tape) {
+        synchronized (shape) {
+            if (shape.compiled == null) {
+                shape.compiled = compile(tape);
+                compilations.increment();
+                log.info("Compiled expression shape after {} executions: {}", shape.executions.get(), tape);
+            }
+            return shape.compiled;
+        }
+    }
+
+    static double interpret(PostfixTape tape) {
+        final double[] stack = new double[tape.operandCount()];
+        final double[] results = tape.hasRefs() ? new double[tape.size()] : null;
+        int top = 0;
+        int operand = 0;
+
+        for (int i = 0; i < tape.size(); i++) {
+            byte opcode = tape.opcode(i);
+            if (opcode == PostfixTape.PUSH) {
+                stack[top++] = tape.operand(operand++);
+            } else if (opcode == PostfixTape.REF) {
+                stack[top++] = results[tape.ref(operand++)];
+            } else {
+                PostfixEvaluationService.requireOperands(top, tape, i);
+                double b = stack[--top];
+                double a = stack[--top];
+                stack[top++] = switch (opcode) {
+                    case '+' -> add(a, b);
+                    case '-' -> subtract(a, b);
+                    case '*' -> multiply(a, b);
+                    case '/' -> divide(a, b);
+                    default -> throw new IllegalArgumentException("Unknown operator: " + (char) opcode);
+                };
+            }
+            if (results != null) {
+                results[i] = stack[top - 1];
+            }
+        }
+        PostfixEvaluationService.requireSingleResult(top, tape);
+        return stack[--top];
+    }
+
+    /**
+     * Builds a {@code (PostfixTape)double} handle for the shape of {@code tape}: every operand becomes a bound
+     * {@code tape.operand(i)} call and every operator combines the handles of its two operands.
+     */
+    static MethodHandle compile(PostfixTape tape) {
+        Deque<MethodHandle> stack = new ArrayDeque<>();
+        final MethodHandle[] handles = new MethodHandle[tape.size()];
+        int operand = 0;
+
+        for (int i = 0; i < tape.size(); i++) {
+            byte opcode = tape.opcode(i);
+            if (opcode == PostfixTape.PUSH) {
+                stack.push(MethodHandles.insertArguments(OPERAND, 1, operand++));
+            } else if (opcode == PostfixTape.REF) {
+                stack.push(handles[tape.ref(operand++)]);
+            } else {
+                PostfixEvaluationService.requireOperands(stack.size(), tape, i);
+                MethodHandle b = stack.pop();
+                MethodHandle a = stack.pop();
+                // (double, double) -> (PostfixTape, PostfixTape) -> (PostfixTape)
+                MethodHandle combined = MethodHandles.filterArguments(operator(opcode), 0, a, b);
+                stack.push(MethodHandles.permuteArguments(combined, TAPE_TO_DOUBLE, 0, 0));
+            }
+            handles[i] = stack.peek();
+        }
+        PostfixEvaluationService.requireSingleResult(stack.size(), tape);
+        return stack.pop();
+    }
+
+    private static MethodHandle operator(byte opcode) {
+        return switch (opcode) {
+            case '+' -> ADD;
+            case '-' -> SUBTRACT;
+            case '*' -> MULTIPLY;
+            case '/' -> DIVIDE;
+            default -> throw new IllegalArgumentException("Unknown operator: " + (char) opcode);
+        };
+    }
+
+    private static double add(double a, double b) {
+        return a + b;
+    }
+
+    private static double subtract(double a, double b) {
+        return a - b;
+    }
+
+    private static double multiply(double a, double b) {
+        return a * b;
+    }
+
+    private static double divide(double a, double b) {
+        if (b == 0) throw new DivisionByZeroException("Division by zero error: Division by zero is not allowed");
+        return a / b;
+    }
+
+    private static final class Shape {
+        private final AtomicInteger executions = new AtomicInteger();
+        private volatile MethodHandle compiled;
+    }
+}
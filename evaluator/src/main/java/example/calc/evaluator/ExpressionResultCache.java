@@ -0,0 +1,220 @@
+package example.calc.evaluator;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import example.demo.shared.exceptions.DivisionByZeroException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Result cache in front of {@link EvaluatorService#evaluate}, keyed by the expression with its whitespace removed,
+ * except between two number characters: {@code 1 2+3} is invalid and must not share a key with {@code 12+3}.
+ * <p>
+ * Concurrent requests for the same expression are coalesced: the first caller evaluates on its own thread and every
+ * other caller waits on the same in-flight future. Failures that recur on every attempt, i.e. invalid expressions and
+ * division by zero, are cached too, for a shorter time-to-live, so a burst of identical invalid expressions does not
+ * each go to the tokenizer and calculator. Any other failure, such as an unavailable or overloaded downstream
+ * service, is handed to the callers waiting at the time and then dropped, so the next request tries again.
+ * <p>
+ * A failure is thrown as is only to the caller that evaluated; every other caller gets its own copy.
+ */
+@Slf4j
+@Component
+public class ExpressionResultCache {
+
+    private static final String CACHE_NAME = "evaluator.expressions";
+
+    private final AsyncCache<String, Outcome> cache;
+    private final Counter coalesced;
+
+    public ExpressionResultCache(EvaluatorProperties evaluatorProperties, MeterRegistry registry) {
+        EvaluatorProperties.ResultCache properties = evaluatorProperties.getResultCache();
+        if (!properties.isEnabled()) {
+            this.cache = null;
+            this.coalesced = null;
+            return;
+        }
+
+        final long ttlNanos = properties.getTtl().toNanos();
+        final long negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new Expiry<String, Outcome>() {
+                    @Override
+                    public long expireAfterCreate(String key, Outcome value, long currentTime) {
+                        return value.error() == null ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Outcome value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Outcome value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        this.coalesced = Counter.builder("cache.coalesced")
+                .description("Requests that waited on an in-flight evaluation of the same expression")
+                .tag("cache", CACHE_NAME)
+                .register(registry);
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME);
+        registry.gauge("cache.hit.ratio", Tags.of("cache", CACHE_NAME), cache,
+                c -> c.synchronous().stats().hitRate());
+    }
+
+    public double get(String expression, ToDoubleFunction<String> evaluation) {
+        if (cache == null) {
+            return evaluation.applyAsDouble(expression);
+        }
+
+        final CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        final String key = normalize(expression);
+        final CompletableFuture<Outcome> future = cache.get(key, (k, executor) -> mine);
+
+        if (future == mine) {
+            // we own the evaluation: run it on this thread so tracing context and virtual thread stay the same
+            try {
+                double result = evaluation.applyAsDouble(expression);
+                mine.complete(new Outcome(result, null));
+                return result;
+            } catch (Throwable e) {
+                // also on an Error: an incomplete future would never expire and every later caller would wait on it
+                if (isPermanent(e)) {
+                    mine.complete(new Outcome(Double.NaN, (RuntimeException) e));
+                } else {
+                    mine.completeExceptionally(e);
+                    cache.asMap().remove(key, mine);
+                }
+                throw e;
+            }
+        }
+
+        if (!future.isDone()) {
+            coalesced.increment();
+            log.debug("Waiting on in-flight evaluation of {}", expression);
+        }
+        try {
+            return future.join().unwrap(false);
+        } catch (CompletionException e) {
+            throw copyOf(AsyncCalls.unwrap(e));
+        }
+    }
+
+    /**
+     * {@link #get} for the {@link EvaluationPipeline#ASYNC} pipeline: the evaluation runs wherever its stages run,
+     * and coalesced callers get the same future instead of waiting for it.
+     */
+    public CompletableFuture<Double> getAsync(String expression, Function<String, CompletableFuture<Double>> evaluation) {
+        if (cache == null) {
+            return evaluation.apply(expression);
+        }
+
+        final boolean[] owner = new boolean[1];
+        final CompletableFuture<Outcome> future = cache.get(normalize(expression), (key, executor) -> {
+            owner[0] = true;
+            return evaluation.apply(expression).handle((result, error) -> {
+                if (error == null) {
+                    return new Outcome(result, null);
+                }
+                RuntimeException cause = AsyncCalls.unwrap(error);
+                if (isPermanent(cause)) {
+                    return new Outcome(Double.NaN, cause);
+                }
+                // completing exceptionally removes the entry
+                throw cause;
+            });
+        });
+        final boolean evaluated = owner[0];
+        if (!evaluated && !future.isDone()) {
+            coalesced.increment();
+            log.debug("Waiting on in-flight evaluation of {}", expression);
+        }
+        return future.handle((outcome, error) -> {
+            if (error != null) {
+                RuntimeException cause = AsyncCalls.unwrap(error);
+                throw evaluated ? cause : copyOf(cause);
+            }
+            return outcome.unwrap(evaluated);
+        });
+    }
+
+    /**
+     * @return whether evaluating the same expression again would fail the same way
+     */
+    static boolean isPermanent(Throwable error) {
+        return error instanceof IllegalArgumentException
+                || error instanceof DivisionByZeroException
+                || error instanceof HttpClientErrorException.BadRequest;
+    }
+
+    /**
+     * A new exception for one caller, so that callers sharing a failure do not share, and add to, one instance.
+     */
+    private static RuntimeException copyOf(RuntimeException error) {
+        RuntimeException copy;
+        if (error instanceof DivisionByZeroException) {
+            copy = new DivisionByZeroException(error.getMessage());
+            copy.initCause(error);
+        } else if (error instanceof IllegalArgumentException) {
+            copy = new IllegalArgumentException(error.getMessage(), error);
+        } else {
+            copy = new RuntimeException(error.getMessage(), error);
+        }
+        return copy;
+    }
+
+    static String normalize(String expression) {
+        StringBuilder normalized = null;
+        // whether the last kept character is a number character and whitespace has been dropped after it
+        boolean afterNumber = false;
+        boolean skipped = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (normalized == null) {
+                    normalized = new StringBuilder(expression.length()).append(expression, 0, i);
+                }
+                skipped = true;
+                continue;
+            }
+            if (normalized != null) {
+                if (skipped && afterNumber && isNumberChar(c)) {
+                    // keeps "1 2" apart from "12"
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+            }
+            afterNumber = isNumberChar(c);
+            skipped = false;
+        }
+        return normalized == null ? expression : normalized.toString();
+    }
+
+    private static boolean isNumberChar(char c) {
+        return (c >= '0' && c <= '9') || c == '.';
+    }
+
+    private record Outcome(double result, RuntimeException error) {
+        double unwrap(boolean evaluated) {
+            if (error != null) {
+                throw evaluated ? error : copyOf(error);
+            }
+            return result;
+        }
+    }
+}
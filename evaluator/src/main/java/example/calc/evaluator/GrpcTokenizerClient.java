@@ -0,0 +1,82 @@
+package example.calc.evaluator;
+
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.proto.TokenizerGrpc;
+import example.demo.shared.proto.TokenizerOuterClass;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "evaluator.tokenizer-transport", havingValue = "GRPC")
+public class GrpcTokenizerClient implements TokenizerClient {
+
+    @GrpcClient("tokenizer-service")
+    private TokenizerGrpc.TokenizerBlockingStub tokenizerStub;
+
+    @GrpcClient("tokenizer-service")
+    private TokenizerGrpc.TokenizerFutureStub tokenizerFutureStub;
+
+    private final Hedger hedger;
+
+    public GrpcTokenizerClient(EvaluatorProperties evaluatorProperties,
+                               RetryBudget retryBudget,
+                               ExecutorService executor,
+                               MeterRegistry registry) {
+        this.hedger = evaluatorProperties.getHedging().isEnabled()
+                ? new Hedger("tokenizer", evaluatorProperties.getHedging(), retryBudget, executor, registry,
+                        e -> e instanceof StatusRuntimeException sre && sre.getStatus().getCode() == Status.Code.UNAVAILABLE)
+                : null;
+    }
+
+    @Override
+    public PostfixTape tokenize(String expression) {
+        TokenizerOuterClass.TokenizeRequest request = TokenizerOuterClass.TokenizeRequest.newBuilder()
+                .setExpression(expression)
+                .build();
+        try {
+            return PostfixTape.fromProto(hedger != null
+                    ? hedger.call(() -> tokenizerStub.tokenize(request))
+                    : tokenizerStub.tokenize(request));
+        } catch (StatusRuntimeException e) {
+            throw tokenizationFailed(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PostfixTape> tokenizeAsync(String expression) {
+        TokenizerOuterClass.TokenizeRequest request = TokenizerOuterClass.TokenizeRequest.newBuilder()
+                .setExpression(expression)
+                .build();
+        return AsyncCalls.toCompletableFuture(tokenizerFutureStub.tokenize(request)).handle((response, error) -> {
+            if (error != null) {
+                RuntimeException cause = AsyncCalls.unwrap(error);
+                if (cause instanceof StatusRuntimeException e) {
+                    throw tokenizationFailed(e);
+                }
+                throw cause;
+            }
+            return PostfixTape.fromProto(response);
+        });
+    }
+
+    /**
+     * The tokenizer answers INVALID_ARGUMENT for an expression it cannot tokenize; any other status is a failure of
+     * the call rather than of the expression.
+     */
+    private static RuntimeException tokenizationFailed(StatusRuntimeException e) {
+        log.error("gRPC error during tokenization: {}", e.getStatus().getDescription());
+        String message = "Tokenization failed: " + e.getStatus().getDescription();
+        return e.getStatus().getCode() == Status.Code.INVALID_ARGUMENT
+                ? new IllegalArgumentException(message)
+                : new RuntimeException(message);
+    }
+}
@@ -0,0 +1,258 @@
+package example.calc.evaluator;
+
+import io.grpc.Context;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for idempotent downstream calls.
+ * <p>
+ * A call that has not answered within the {@code percentile} of recent latencies gets a duplicate, and whichever
+ * attempt succeeds first wins; the other one is cancelled: its gRPC {@link Context} is cancelled and the thread
+ * running it is interrupted. The interrupt is what aborts calls that ignore the Context, such as the tokenizer's REST
+ * call, since the JDK HttpClient behind {@code RestClient} cancels the exchange of an interrupted send. A call that
+ * fails fast with a retryable error is retried once instead. Both spend a token from the shared {@link RetryBudget}; without
+ * one, the call simply keeps waiting on its first attempt. With {@link CalculatorEndpointPool} enabled the duplicate
+ * is balanced like any other call, so it normally lands on another replica.
+ * <p>
+ * No hedges are sent until {@value #MIN_SAMPLES} latencies have been seen.
+ */
+@Slf4j
+class Hedger {
+
+    static final int MIN_SAMPLES = 100;
+    private static final int WINDOW = 1_000;
+    // the hedge delay is recomputed after this many new latencies
+    private static final int RECOMPUTE_EVERY = 100;
+
+    private final RetryBudget budget;
+    private final ExecutorService executor;
+    private final Predicate<RuntimeException> retryable;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final boolean retryEnabled;
+
+    private final Counter calls;
+    private final Counter hedges;
+    private final Counter retries;
+    private final Counter wins;
+    private final Counter budgetExhausted;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // ring buffer of recent latencies, guarded by lock
+    private final long[] latencies = new long[WINDOW];
+    private long recorded;
+    private volatile long delayNanos = Long.MAX_VALUE;
+
+    Hedger(String client,
+           EvaluatorProperties.Hedging properties,
+           RetryBudget budget,
+           ExecutorService executor,
+           MeterRegistry registry,
+           Predicate<RuntimeException> retryable) {
+        this.budget = budget;
+        this.executor = executor;
+        this.retryable = retryable;
+        this.percentile = properties.getPercentile();
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+        this.retryEnabled = properties.isRetryUnavailable();
+
+        this.calls = counter("evaluator.hedging.calls", client, "Calls made through the hedger", registry);
+        this.hedges = counter("evaluator.hedging.hedges", client, "Duplicate attempts sent after the hedge delay", registry);
+        this.retries = counter("evaluator.hedging.retries", client, "Attempts retried after a retryable failure", registry);
+        this.wins = counter("evaluator.hedging.wins", client, "Calls answered by the hedge rather than the first attempt", registry);
+        this.budgetExhausted = counter("evaluator.hedging.budget.exhausted", client,
+                "Hedges and retries skipped because the budget was used up", registry);
+        Gauge.builder("evaluator.hedging.delay", this, hedger -> hedger.delayNanos == Long.MAX_VALUE ? 0 : hedger.delayNanos / 1e9)
+                .tag("client", client)
+                .baseUnit("seconds")
+                .description("Time after which a call is hedged")
+                .register(registry);
+    }
+
+    private static Counter counter(String name, String client, String description, MeterRegistry registry) {
+        return Counter.builder(name).tag("client", client).description(description).register(registry);
+    }
+
+    <T> T call(Supplier<T> call) {
+        calls.increment();
+        budget.deposit();
+        long start = System.nanoTime();
+
+        Attempt<T> primary = start(call);
+        try {
+            T result = primary.future.get(delayNanos, TimeUnit.NANOSECONDS);
+            record(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            return hedge(call, primary, start);
+        } catch (ExecutionException e) {
+            RuntimeException failure = unwrap(e);
+            if (!retryEnabled || !retryable.test(failure)) {
+                throw failure;
+            }
+            if (!budget.tryWithdraw()) {
+                budgetExhausted.increment();
+                throw failure;
+            }
+            retries.increment();
+            log.debug("Retrying after {}", failure.getMessage());
+            return await(start(call));
+        } catch (InterruptedException e) {
+            primary.cancel();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a response", e);
+        }
+    }
+
+    private <T> T hedge(Supplier<T> call, Attempt<T> primary, long start) {
+        if (!budget.tryWithdraw()) {
+            budgetExhausted.increment();
+            T result = await(primary);
+            record(System.nanoTime() - start);
+            return result;
+        }
+        hedges.increment();
+        Attempt<T> hedge = start(call);
+
+        try {
+            CompletableFuture.anyOf(primary.future, hedge.future).join();
+        } catch (RuntimeException e) {
+            // one of them failed, the other one may still succeed
+        }
+        Attempt<T> first = primary.future.isDone() ? primary : hedge;
+        Attempt<T> second = first == primary ? hedge : primary;
+        if (!first.future.isCompletedExceptionally()) {
+            second.cancel();
+            if (first == hedge) {
+                wins.increment();
+            }
+            // the primary's latency is only known to be at least this long when the hedge won
+            record(System.nanoTime() - start);
+            return first.future.join();
+        }
+
+        RuntimeException firstFailure = failure(first);
+        try {
+            T result = await(second);
+            if (second == hedge) {
+                wins.increment();
+            }
+            record(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            // report the primary's failure, as if there had been no hedge
+            throw first == primary ? firstFailure : e;
+        }
+    }
+
+    private <T> Attempt<T> start(Supplier<T> call) {
+        Attempt<T> attempt = new Attempt<>(Context.current().withCancellation());
+        executor.execute(() -> attempt.run(call));
+        return attempt;
+    }
+
+    private static <T> T await(Attempt<T> attempt) {
+        try {
+            return attempt.future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            attempt.cancel();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a response", e);
+        }
+    }
+
+    private static RuntimeException failure(Attempt<?> attempt) {
+        Throwable failure = attempt.future.exceptionNow();
+        return failure instanceof RuntimeException e ? e : new RuntimeException(failure);
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(e.getCause());
+    }
+
+    void record(long latencyNanos) {
+        lock.lock();
+        try {
+            latencies[(int) (recorded % WINDOW)] = latencyNanos;
+            recorded++;
+            if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_EVERY == 0) {
+                long[] window = Arrays.copyOf(latencies, (int) Math.min(recorded, WINDOW));
+                Arrays.sort(window);
+                long value = window[(int) Math.min(window.length - 1, Math.floor(percentile * window.length))];
+                delayNanos = Math.max(minDelayNanos, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long delayNanos() {
+        return delayNanos;
+    }
+
+    private static final class Attempt<T> {
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Context.CancellableContext context;
+        // guarded by this
+        private Thread runner;
+        private boolean cancelled;
+
+        Attempt(Context.CancellableContext context) {
+            this.context = context;
+        }
+
+        void run(Supplier<T> call) {
+            synchronized (this) {
+                if (cancelled) {
+                    future.cancel(false);
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            Context previous = context.attach();
+            try {
+                future.complete(call.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                context.detach(previous);
+                // releases the context; a call that already returned is not affected
+                context.cancel(null);
+                synchronized (this) {
+                    runner = null;
+                    // an interrupt that arrived as the call returned must not leak into the thread's next task
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            context.cancel(null);
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package example.calc.evaluator;
+
+/**
+ * How {@link CalculatorEndpointPool} picks a calculator replica for each call.
+ */
+public enum LoadBalancing {
+    /** each available endpoint in turn */
+    ROUND_ROBIN,
+    /** the available endpoint with the fewest calls in flight */
+    LEAST_OUTSTANDING,
+    /** the less loaded of two available endpoints chosen at random */
+    POWER_OF_TWO
+}
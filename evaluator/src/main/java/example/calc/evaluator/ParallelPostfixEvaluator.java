@@ -0,0 +1,151 @@
+package example.calc.evaluator;
+
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.logging.HotPathLog;
+import example.demo.shared.proto.CalculatorOuterClass;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates a postfix expression as a dependency DAG: every operator is sent to the calculator as soon as both of
+ * its operands are known, so independent subtrees such as the two products in {@code 2*3 + 4*5} are calculated
+ * concurrently and wall-clock latency follows the depth of the expression tree rather than its operator count.
+ * A {@link PostfixTape#REF} shares the future of the subexpression it refers to, so it is calculated once.
+ */
+@Slf4j
+@Component
+public class ParallelPostfixEvaluator {
+
+    private final CalculatorClient calculatorClient;
+    private final ExecutorService executor;
+    private final DistributionSummary achievedParallelism;
+    private final DistributionSummary availableParallelism;
+    private final HotPathLog.Site postfixLog;
+
+    public ParallelPostfixEvaluator(CalculatorClient calculatorClient, ExecutorService executor, MeterRegistry registry,
+                                    HotPathLog hotPathLog) {
+        this.calculatorClient = calculatorClient;
+        this.executor = executor;
+        this.postfixLog = hotPathLog.site(log, "evaluate-postfix-parallel");
+        this.achievedParallelism = DistributionSummary.builder("evaluator.parallelism.achieved")
+                .description("Peak number of concurrent calculator calls per expression")
+                .register(registry);
+        this.availableParallelism = DistributionSummary.builder("evaluator.parallelism.available")
+                .description("Operator count divided by expression tree depth")
+                .register(registry);
+    }
+
+    public double evaluate(PostfixTape tape) {
+        postfixLog.info("evaluatingPostfix in parallel: {}", () -> tape);
+        InFlight inFlight = new InFlight();
+        Graph graph = build(tape, (operation, a, b) ->
+                a.thenCombineAsync(b, (x, y) -> inFlight.call(() -> calculatorClient.calculate(operation, x, y)), executor));
+
+        try {
+            return graph.root().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            record(tape, graph.depth(), inFlight);
+        }
+    }
+
+    /**
+     * {@link #evaluate} for the {@link EvaluationPipeline#ASYNC} pipeline: an operator's call is issued from the
+     * callback that delivers its last operand, and no thread waits for the result.
+     */
+    public CompletableFuture<Double> evaluateAsync(PostfixTape tape) {
+        postfixLog.info("evaluatingPostfix in parallel, async: {}", () -> tape);
+        InFlight inFlight = new InFlight();
+        Graph graph = build(tape, (operation, a, b) ->
+                a.thenCompose(x -> b.thenCompose(y -> inFlight.callAsync(() -> calculatorClient.calculateAsync(operation, x, y)))));
+        return graph.root().whenComplete((result, error) -> record(tape, graph.depth(), inFlight));
+    }
+
+    private static Graph build(PostfixTape tape, OperatorNode operatorNode) {
+        Deque<CompletableFuture<Double>> stack = new ArrayDeque<>();
+        final int[] depths = new int[tape.operandCount()];
+        // future and depth of each token, for REFs
+        final List<CompletableFuture<Double>> results = new ArrayList<>(tape.size());
+        final int[] resultDepths = new int[tape.size()];
+        int top = 0;
+        int operand = 0;
+
+        for (int i = 0; i < tape.size(); i++) {
+            byte opcode = tape.opcode(i);
+            if (opcode == PostfixTape.PUSH) {
+                stack.push(CompletableFuture.completedFuture(tape.operand(operand++)));
+                depths[top++] = 0;
+            } else if (opcode == PostfixTape.REF) {
+                int ref = tape.ref(operand++);
+                stack.push(results.get(ref));
+                depths[top++] = resultDepths[ref];
+            } else {
+                PostfixEvaluationService.requireOperands(top, tape, i);
+                CompletableFuture<Double> b = stack.pop();
+                CompletableFuture<Double> a = stack.pop();
+                top--;
+                depths[top - 1] = Math.max(depths[top - 1], depths[top]) + 1;
+                stack.push(operatorNode.create(CalculatorClient.mapOperator(opcode), a, b));
+            }
+            results.add(stack.peek());
+            resultDepths[i] = depths[top - 1];
+        }
+        PostfixEvaluationService.requireSingleResult(top, tape);
+        return new Graph(stack.pop(), depths[0]);
+    }
+
+    private void record(PostfixTape tape, int depth, InFlight inFlight) {
+        if (depth > 0) {
+            availableParallelism.record((double) tape.operatorCount() / depth);
+            achievedParallelism.record(inFlight.peak.get());
+        }
+    }
+
+    @FunctionalInterface
+    private interface OperatorNode {
+        CompletableFuture<Double> create(CalculatorOuterClass.CalculatorRequest.Operation operation,
+                                         CompletableFuture<Double> a, CompletableFuture<Double> b);
+    }
+
+    private record Graph(CompletableFuture<Double> root, int depth) {
+    }
+
+    /**
+     * Tracks the number of calculator calls in flight for a single expression.
+     */
+    private static final class InFlight {
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        double call(DoubleSupplier call) {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                return call.getAsDouble();
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+
+        CompletableFuture<Double> callAsync(Supplier<CompletableFuture<Double>> call) {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            return call.get().whenComplete((result, error) -> current.decrementAndGet());
+        }
+    }
+}
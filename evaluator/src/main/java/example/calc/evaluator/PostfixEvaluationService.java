@@ -1,75 +1,234 @@
 package example.calc.evaluator;
 
-import example.demo.shared.domain.NumberToken;
-import example.demo.shared.domain.OperatorToken;
+import example.demo.shared.breakdown.LatencyBreakdown;
+import example.demo.shared.domain.PostfixTape;
 import example.demo.shared.domain.Token;
-import example.demo.shared.proto.CalculatorGrpc;
+import example.demo.shared.exceptions.DivisionByZeroException;
+import example.demo.shared.exceptions.InvalidExpressionException;
+import example.demo.shared.logging.HotPathLog;
 import example.demo.shared.proto.CalculatorOuterClass;
-import io.grpc.Status;
-import io.grpc.StatusRuntimeException;
 import lombok.extern.slf4j.Slf4j;
-import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 public class PostfixEvaluationService {
 
-    @GrpcClient("calculator-service")
-    private CalculatorGrpc.CalculatorBlockingStub calculatorClient;
+    private final CalculatorClient calculatorClient;
+    private final ParallelPostfixEvaluator parallelPostfixEvaluator;
+    private final ExpressionCompiler expressionCompiler;
+    private final EvaluatorProperties evaluatorProperties;
+    private final EvaluationMetrics metrics;
+    private final HotPathLog.Site postfixLog;
 
+    public PostfixEvaluationService(CalculatorClient calculatorClient,
+                                    ParallelPostfixEvaluator parallelPostfixEvaluator,
+                                    ExpressionCompiler expressionCompiler,
+                                    EvaluatorProperties evaluatorProperties,
+                                    EvaluationMetrics metrics,
+                                    HotPathLog hotPathLog) {
+        this.calculatorClient = calculatorClient;
+        this.parallelPostfixEvaluator = parallelPostfixEvaluator;
+        this.expressionCompiler = expressionCompiler;
+        this.evaluatorProperties = evaluatorProperties;
+        this.metrics = metrics;
+        this.postfixLog = hotPathLog.site(log, "evaluate-postfix");
+    }
 
     public double evaluatePostfix(List<Token> tokens) {
-        log.info("evaluatingPostfix: {}", tokens);
-        Deque<Double> stack = new ArrayDeque<>();
-
-        for (Token token : tokens) {
-            if (token instanceof NumberToken numberToken) {
-                stack.push(numberToken.value());
-            } else if (token instanceof OperatorToken operatorToken) {
-                double b = stack.pop();
-                double a = stack.pop();
-
-                CalculatorOuterClass.CalculatorRequest request = CalculatorOuterClass.CalculatorRequest.newBuilder()
-                        .setA(a)
-                        .setB(b)
-                        .setOperation(mapOperator(operatorToken))
-                        .build();
+        return evaluatePostfix(PostfixTape.fromTokens(tokens));
+    }
+
+    public double evaluatePostfix(PostfixTape tape) {
+        EvaluationMode mode = evaluatorProperties.getMode();
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        try {
+            return switch (mode) {
+                case PER_OPERATOR -> evaluatePerOperator(tape);
+                case PER_PROGRAM -> evaluatePerProgram(tape);
+                case PARALLEL -> parallelPostfixEvaluator.evaluate(tape);
+                case LOCAL -> expressionCompiler.evaluate(tape);
+            };
+        } finally {
+            metrics.evaluation(mode, System.nanoTime() - start, breakdown);
+        }
+    }
 
+    /**
+     * {@link #evaluatePostfix(PostfixTape)} for the {@link EvaluationPipeline#ASYNC} pipeline, with the same
+     * evaluation modes.
+     */
+    public CompletableFuture<Double> evaluatePostfixAsync(PostfixTape tape) {
+        EvaluationMode mode = evaluatorProperties.getMode();
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        return evaluateAsync(mode, tape)
+                .whenComplete((result, error) -> metrics.evaluation(mode, System.nanoTime() - start, breakdown));
+    }
+
+    private CompletableFuture<Double> evaluateAsync(EvaluationMode mode, PostfixTape tape) {
+        return switch (mode) {
+            case PER_OPERATOR -> new AsyncPerOperatorEvaluation(tape).resume();
+            case PER_PROGRAM -> {
+                postfixLog.info("evaluatingPostfix as program, async: {}", () -> tape);
+                yield calculatorClient.evaluateProgramAsync(toProgram(tape)).thenApply(PostfixEvaluationService::programResult);
+            }
+            case PARALLEL -> parallelPostfixEvaluator.evaluateAsync(tape);
+            // no calls to wait for
+            case LOCAL -> {
                 try {
-                    double result = calculatorClient.calculate(request).getResult();
-                    stack.push(result);
-                } catch (StatusRuntimeException e) {
-                    // Handle gRPC-specific exceptions
-                    handleGrpcException(e, operatorToken, a, b);
+                    yield CompletableFuture.completedFuture(expressionCompiler.evaluate(tape));
+                } catch (RuntimeException e) {
+                    yield CompletableFuture.failedFuture(e);
                 }
             }
+        };
+    }
+
+    private double evaluatePerOperator(PostfixTape tape) {
+        postfixLog.info("evaluatingPostfix: {}", () -> tape);
+        final double[] stack = new double[tape.operandCount()];
+        // result of each token, kept only when a REF may read it back
+        final double[] results = tape.hasRefs() ? new double[tape.size()] : null;
+        int top = 0;
+        int operand = 0;
+
+        for (int i = 0; i < tape.size(); i++) {
+            byte opcode = tape.opcode(i);
+            if (opcode == PostfixTape.PUSH) {
+                stack[top++] = tape.operand(operand++);
+            } else if (opcode == PostfixTape.REF) {
+                stack[top++] = results[tape.ref(operand++)];
+            } else {
+                requireOperands(top, tape, i);
+                double b = stack[--top];
+                double a = stack[--top];
+                stack[top++] = calculatorClient.calculate(CalculatorClient.mapOperator(opcode), a, b);
+            }
+            if (results != null) {
+                results[i] = stack[top - 1];
+            }
         }
-        return stack.pop();
+        requireSingleResult(top, tape);
+        return stack[--top];
     }
 
-    private CalculatorOuterClass.CalculatorRequest.Operation mapOperator(OperatorToken operatorToken) {
-        return switch (operatorToken.operator()) {
-            case '+' -> CalculatorOuterClass.CalculatorRequest.Operation.ADD;
-            case '-' -> CalculatorOuterClass.CalculatorRequest.Operation.SUBTRACT;
-            case '*' -> CalculatorOuterClass.CalculatorRequest.Operation.MULTIPLY;
-            case '/' -> CalculatorOuterClass.CalculatorRequest.Operation.DIVIDE;
-            default -> throw new IllegalArgumentException("Unknown operator: " + operatorToken.operator());
-        };
+    /**
+     * Not every tokenizer configuration rejects a malformed expression (e.g. {@code 1+} with the SHUNTING_YARD
+     * parser), so the stack depth of a tape is checked rather than trusted.
+     *
+     * @param depth values on the stack before the operator at {@code index}
+     */
+    static void requireOperands(int depth, PostfixTape tape, int index) {
+        if (depth < 2) {
+            throw new InvalidExpressionException("Missing operand for operator '" + (char) tape.opcode(index) + "'", index);
+        }
+    }
+
+    /**
+     * @param depth values on the stack after the last token
+     */
+    static void requireSingleResult(int depth, PostfixTape tape) {
+        if (depth != 1) {
+            throw new InvalidExpressionException("Expression leaves " + depth + " values instead of one", tape.size());
+        }
+    }
+
+    /**
+     * Ships the whole postfix expression to the calculator in one round trip instead of one per operator.
+     */
+    private double evaluatePerProgram(PostfixTape tape) {
+        postfixLog.info("evaluatingPostfix as program: {}", () -> tape);
+        return programResult(calculatorClient.evaluateProgram(toProgram(tape)));
+    }
+
+    /**
+     * The {@code evaluateProgram} request for a tape; public for the calculator round-trip benchmark.
+     */
+    public static CalculatorOuterClass.ProgramRequest toProgram(PostfixTape tape) {
+        CalculatorOuterClass.ProgramRequest.Builder program = CalculatorOuterClass.ProgramRequest.newBuilder();
+        int operand = 0;
+        for (int i = 0; i < tape.size(); i++) {
+            byte opcode = tape.opcode(i);
+            CalculatorOuterClass.ProgramRequest.Step.Builder step = program.addStepsBuilder();
+            if (opcode == PostfixTape.PUSH) {
+                step.setOperand(tape.operand(operand++));
+            } else if (opcode == PostfixTape.REF) {
+                step.setRef(tape.ref(operand++));
+            } else {
+                step.setOperation(CalculatorClient.mapOperator(opcode));
+            }
+        }
+        return program.build();
+    }
+
+    private static double programResult(CalculatorOuterClass.ProgramResponse response) {
+        if (response.hasError()) {
+            CalculatorOuterClass.ProgramError error = response.getError();
+            log.error("Program evaluation failed at step {}: {}", error.getStepIndex(), error.getMessage());
+            if (error.getCode() == CalculatorOuterClass.ProgramError.Code.DIVISION_BY_ZERO) {
+                throw new DivisionByZeroException("Division by zero error: " + error.getMessage());
+            }
+            throw new IllegalArgumentException("Invalid operation error at step " + error.getStepIndex() + ": " + error.getMessage());
+        }
+        return response.getResult();
     }
 
-    private void handleGrpcException(StatusRuntimeException e, OperatorToken operatorToken, double a, double b) {
-        log.error("gRPC error during evaluation: {}", e.getStatus().getDescription());
-        if (e.getStatus().getCode() == Status.Code.INVALID_ARGUMENT) {
-            if (operatorToken.operator() == '/' && b == 0) {
-                throw new RuntimeException("Division by zero error: " + e.getStatus().getDescription());
+    /**
+     * {@link #evaluatePerOperator} as a chain of callbacks: the walk over the tape stops at each operator whose result
+     * is not known yet and resumes from the callback that delivers it. Results that are already there, e.g. from the
+     * operation cache, are used in the same pass instead of adding a stage.
+     */
+    private final class AsyncPerOperatorEvaluation {
+        private final PostfixTape tape;
+        private final double[] stack;
+        private final double[] results;
+        private int top;
+        private int operand;
+        private int next;
+
+        AsyncPerOperatorEvaluation(PostfixTape tape) {
+            postfixLog.info("evaluatingPostfix, async: {}", () -> tape);
+            this.tape = tape;
+            this.stack = new double[tape.operandCount()];
+            this.results = tape.hasRefs() ? new double[tape.size()] : null;
+        }
+
+        CompletableFuture<Double> resume() {
+            while (next < tape.size()) {
+                int i = next++;
+                byte opcode = tape.opcode(i);
+                if (opcode == PostfixTape.PUSH) {
+                    push(i, tape.operand(operand++));
+                } else if (opcode == PostfixTape.REF) {
+                    push(i, results[tape.ref(operand++)]);
+                } else {
+                    requireOperands(top, tape, i);
+                    double b = stack[--top];
+                    double a = stack[--top];
+                    CompletableFuture<Double> result = calculatorClient.calculateAsync(CalculatorClient.mapOperator(opcode), a, b);
+                    if (!result.isDone() || result.isCompletedExceptionally()) {
+                        return result.thenCompose(value -> {
+                            push(i, value);
+                            return resume();
+                        });
+                    }
+                    push(i, result.join());
+                }
+            }
+            requireSingleResult(top, tape);
+            return CompletableFuture.completedFuture(stack[--top]);
+        }
+
+        private void push(int index, double value) {
+            stack[top++] = value;
+            if (results != null) {
+                results[index] = value;
             }
-            throw new RuntimeException("Invalid operation error: " + e.getStatus().getDescription());
         }
-        throw new RuntimeException("Unexpected error from calculator service: " + e.getStatus().getDescription());
     }
-}
\ No newline at end of file
+}
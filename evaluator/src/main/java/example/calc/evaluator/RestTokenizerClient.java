@@ -0,0 +1,183 @@
+package example.calc.evaluator;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import example.demo.shared.config.RestClientConfig;
+import example.demo.shared.config.RestClientProperties;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.domain.Token;
+import example.demo.shared.logging.HotPathLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Calls the tokenizer over HTTP: {@link TokenizerTransport#REST} fetches the JSON tokens from {@code /tokenize},
+ * {@link TokenizerTransport#REST_TAPE} the binary {@link PostfixTape} from {@code /tokenize/tape}.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("!'${evaluator.tokenizer-transport:REST}'.equalsIgnoreCase('GRPC')")
+public class RestTokenizerClient implements TokenizerClient {
+
+    private static final MediaType TAPE = MediaType.parseMediaType(PostfixTape.MEDIA_TYPE);
+    private static final ParameterizedTypeReference<List<Token>> TOKEN_LIST = new ParameterizedTypeReference<>() {
+    };
+    private static final TypeReference<List<Token>> TOKEN_LIST_JSON = new TypeReference<>() {
+    };
+
+    private final RestClient restClient;
+    private final boolean tape;
+    private final String path;
+    private final Hedger hedger;
+    // the async pipeline bypasses RestClient, which only offers blocking calls
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Duration readTimeout;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<Tracer> tracer;
+    private final ObjectProvider<Propagator> propagator;
+    private final HotPathLog.Site threadLog;
+
+    public RestTokenizerClient(RestClient restClient,
+                               RestClientProperties restClientProperties,
+                               EvaluatorProperties evaluatorProperties,
+                               RetryBudget retryBudget,
+                               ExecutorService executor,
+                               MeterRegistry registry,
+                               ObjectMapper objectMapper,
+                               ObjectProvider<Tracer> tracer,
+                               ObjectProvider<Propagator> propagator,
+                               HotPathLog hotPathLog) {
+        this.restClient = restClient;
+        this.tape = evaluatorProperties.getTokenizerTransport() == TokenizerTransport.REST_TAPE;
+        this.path = tape ? "/tokenize/tape" : "/tokenize";
+        this.hedger = evaluatorProperties.getHedging().isEnabled()
+                ? new Hedger("tokenizer", evaluatorProperties.getHedging(), retryBudget, executor, registry,
+                        e -> e instanceof ResourceAccessException || e instanceof HttpServerErrorException.ServiceUnavailable)
+                : null;
+        this.httpClient = evaluatorProperties.getPipeline() == EvaluationPipeline.ASYNC
+                ? RestClientConfig.httpClientBuilder(restClientProperties)
+                        .executor(executor)
+                        .build()
+                : null;
+        this.uri = URI.create(restClientProperties.getBaseUrl() + path);
+        this.readTimeout = restClientProperties.getReadTimeout();
+        this.objectMapper = objectMapper;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.threadLog = hotPathLog.site(log, "tokenize-call");
+    }
+
+    @Override
+    public PostfixTape tokenize(String expression) {
+        threadLog.info("Current Thread: {}", Thread::currentThread);
+        return hedger != null ? hedger.call(() -> send(expression)) : send(expression);
+    }
+
+    private PostfixTape send(String expression) {
+        if (tape) {
+            return PostfixTape.fromBytes(restClient
+                    .post()
+                    .uri(path)
+                    .accept(TAPE)
+                    .body(expression)
+                    .retrieve()
+                    .body(byte[].class));
+        }
+        return PostfixTape.fromTokens(restClient
+                .post()
+                .uri(path)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(expression)
+                .retrieve()
+                .body(TOKEN_LIST));
+    }
+
+    @Override
+    public CompletableFuture<PostfixTape> tokenizeAsync(String expression) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header(HttpHeaders.ACCEPT, tape ? PostfixTape.MEDIA_TYPE : MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(expression));
+        injectTraceContext(request);
+
+        CompletableFuture<HttpResponse<byte[]>> response =
+                httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return AsyncCalls.withContext(response).handle((result, error) -> {
+            if (error != null) {
+                if (error.getCause() instanceof IOException e) {
+                    throw new ResourceAccessException("I/O error on POST request for \"" + uri + "\": " + e.getMessage(), e);
+                }
+                throw AsyncCalls.unwrap(error);
+            }
+            if (result.statusCode() >= 400) {
+                throw responseException(result);
+            }
+            return parse(result.body());
+        });
+    }
+
+    private PostfixTape parse(byte[] body) {
+        if (tape) {
+            return PostfixTape.fromBytes(body);
+        }
+        try {
+            return PostfixTape.fromTokens(objectMapper.readValue(body, TOKEN_LIST_JSON));
+        } catch (IOException e) {
+            throw new RestClientException("Error while extracting response for type [List<Token>]", e);
+        }
+    }
+
+    private void injectTraceContext(HttpRequest.Builder request) {
+        Tracer currentTracer = tracer.getIfAvailable();
+        Propagator currentPropagator = propagator.getIfAvailable();
+        Span span = currentTracer != null ? currentTracer.currentSpan() : null;
+        if (span != null && currentPropagator != null) {
+            currentPropagator.inject(span.context(), request, HttpRequest.Builder::header);
+        }
+    }
+
+    /**
+     * The exception {@link RestClient#retrieve()} throws for the same response.
+     */
+    private static RuntimeException responseException(HttpResponse<byte[]> response) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        HttpStatus known = HttpStatus.resolve(response.statusCode());
+        String statusText = known != null ? known.getReasonPhrase() : "";
+        String body = new String(response.body(), StandardCharsets.UTF_8);
+        String message = status.value() + " " + statusText + ": \"" + body + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return status.is4xxClientError()
+                ? HttpClientErrorException.create(message, status, statusText, headers, response.body(), StandardCharsets.UTF_8)
+                : HttpServerErrorException.create(message, status, statusText, headers, response.body(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package example.calc.evaluator;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket shared by all {@link Hedger}s, so hedges and retries cannot multiply load when a downstream service
+ * is already overloaded. Every call earns {@code ratio} tokens, up to {@code capacity}, and every hedge or retry
+ * spends a whole token: in the long run at most {@code ratio} of the calls are duplicated.
+ */
+@Component
+public class RetryBudget {
+
+    private static final long MILLIS_PER_TOKEN = 1_000;
+
+    private final long depositMillis;
+    private final long capacityMillis;
+    // in thousandths of a token, starting full
+    private final AtomicLong balance;
+
+    public RetryBudget(EvaluatorProperties evaluatorProperties, MeterRegistry registry) {
+        EvaluatorProperties.Budget properties = evaluatorProperties.getHedging().getBudget();
+        this.depositMillis = Math.round(properties.getRatio() * MILLIS_PER_TOKEN);
+        this.capacityMillis = properties.getCapacity() * MILLIS_PER_TOKEN;
+        this.balance = new AtomicLong(capacityMillis);
+
+        Gauge.builder("evaluator.hedging.budget.tokens", this, RetryBudget::tokens)
+                .description("Hedges and retries the budget currently allows")
+                .register(registry);
+        // with no capacity nothing can ever be spent, which reads as a budget that is always used up
+        Gauge.builder("evaluator.hedging.budget.used", this,
+                        budget -> capacityMillis == 0 ? 1 : 1 - (double) budget.balance.get() / capacityMillis)
+                .description("Fraction of the hedge and retry budget used up")
+                .register(registry);
+    }
+
+    void deposit() {
+        balance.getAndUpdate(current -> Math.min(capacityMillis, current + depositMillis));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < MILLIS_PER_TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - MILLIS_PER_TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    double tokens() {
+        return (double) balance.get() / MILLIS_PER_TOKEN;
+    }
+}
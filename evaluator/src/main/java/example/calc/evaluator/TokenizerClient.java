@@ -0,0 +1,18 @@
+package example.calc.evaluator;
+
+import example.demo.shared.domain.PostfixTape;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Converts an infix expression into a postfix tape by calling the tokenizer.
+ */
+public interface TokenizerClient {
+
+    PostfixTape tokenize(String expression);
+
+    /**
+     * Non-blocking {@link #tokenize}, for the {@link EvaluationPipeline#ASYNC} pipeline.
+     */
+    CompletableFuture<PostfixTape> tokenizeAsync(String expression);
+}
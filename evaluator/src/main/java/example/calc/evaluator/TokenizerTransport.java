@@ -0,0 +1,13 @@
+package example.calc.evaluator;
+
+/**
+ * How the evaluator reaches the tokenizer service.
+ */
+public enum TokenizerTransport {
+    /** JSON over HTTP/1.1 to {@code /tokenize} */
+    REST,
+    /** a binary {@link example.demo.shared.domain.PostfixTape} over HTTP/1.1 from {@code /tokenize/tape} */
+    REST_TAPE,
+    /** the {@code Tokenizer} gRPC service with packed tokens */
+    GRPC
+}
@@ -0,0 +1,122 @@
+package example.calc.evaluator;
+
+import example.demo.shared.proto.CalculatorOuterClass;
+import example.demo.shared.proto.CalculatorOuterClass.CalculatorRequest.Operation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculatorBatcherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    // calculates the batch locally, failing divisions by zero like the calculator does
+    private synchronized CalculatorOuterClass.BatchResponse calculate(CalculatorOuterClass.BatchRequest request) {
+        batchSizes.add(request.getACount());
+        CalculatorOuterClass.BatchResponse.Builder response = CalculatorOuterClass.BatchResponse.newBuilder();
+        for (int i = 0; i < request.getACount(); i++) {
+            if (request.getOperation(i) == Operation.DIVIDE && request.getB(i) == 0) {
+                response.addResult(Double.NaN).addFailedIndex(i).addError("Division by zero is not allowed");
+            } else {
+                response.addResult(request.getOperation(i) == Operation.ADD
+                        ? request.getA(i) + request.getB(i)
+                        : request.getA(i) / request.getB(i));
+            }
+        }
+        return response.build();
+    }
+
+    private CalculatorBatcher batcher(int maxSize, Duration window, ExecutorService executor) {
+        return batcher(maxSize, window, executor, this::calculate);
+    }
+
+    private CalculatorBatcher batcher(int maxSize, Duration window, ExecutorService executor,
+                                      Function<CalculatorOuterClass.BatchRequest, CalculatorOuterClass.BatchResponse> sender) {
+        EvaluatorProperties.Batch properties = new EvaluatorProperties.Batch();
+        properties.setEnabled(true);
+        properties.setMaxSize(maxSize);
+        properties.setWindow(window);
+        return new CalculatorBatcher(properties, sender, executor, registry);
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             CalculatorBatcher batcher = batcher(4, Duration.ofMinutes(1), executor)) {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                double a = i;
+                results.add(executor.submit(() -> batcher.calculate(Operation.ADD, a, 10)));
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(10.0 + i, results.get(i).get());
+            }
+            assertEquals(List.of(4), batchSizes);
+        }
+    }
+
+    @Test
+    void partialBatchIsSentWhenTheWindowElapses() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             CalculatorBatcher batcher = batcher(64, Duration.ofMillis(5), executor)) {
+            assertEquals(3.0, batcher.calculate(Operation.ADD, 1, 2));
+            assertEquals(List.of(1), batchSizes);
+            assertTrue(registry.get("evaluator.batch.queue.delay").timer().totalTime(TimeUnit.MILLISECONDS) >= 4);
+        }
+    }
+
+    @Test
+    void failedEntryFailsOnlyItsCaller() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             CalculatorBatcher batcher = batcher(2, Duration.ofMinutes(1), executor)) {
+            Future<Double> ok = executor.submit(() -> batcher.calculate(Operation.DIVIDE, 6, 3));
+            RuntimeException e = assertThrows(RuntimeException.class, () -> batcher.calculate(Operation.DIVIDE, 1, 0));
+            assertTrue(e.getMessage().startsWith("Division by zero error"));
+            assertEquals(2.0, ok.get());
+        }
+    }
+
+    @Test
+    void shortResponseFailsEveryCaller() throws Exception {
+        // one result for a batch of two
+        Function<CalculatorOuterClass.BatchRequest, CalculatorOuterClass.BatchResponse> sender =
+                request -> CalculatorOuterClass.BatchResponse.newBuilder().addResult(1).build();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             CalculatorBatcher batcher = batcher(2, Duration.ofMinutes(1), executor, sender)) {
+            Future<Double> first = executor.submit(() -> batcher.calculate(Operation.ADD, 1, 2));
+            Future<Double> second = executor.submit(() -> batcher.calculate(Operation.ADD, 3, 4));
+
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void errorInTheSenderFailsEveryCaller() throws Exception {
+        Function<CalculatorOuterClass.BatchRequest, CalculatorOuterClass.BatchResponse> sender = request -> {
+            throw new StackOverflowError();
+        };
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             CalculatorBatcher batcher = batcher(64, Duration.ofMillis(5), executor, sender)) {
+            Future<Double> first = executor.submit(() -> batcher.calculate(Operation.ADD, 1, 2));
+            Future<Double> second = executor.submit(() -> batcher.calculate(Operation.ADD, 3, 4));
+
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
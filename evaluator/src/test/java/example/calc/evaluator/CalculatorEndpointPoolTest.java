@@ -0,0 +1,90 @@
+package example.calc.evaluator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculatorEndpointPoolTest {
+
+    private CalculatorEndpointPool pool;
+
+    // channels connect lazily, so nothing needs to listen on these ports
+    private CalculatorEndpointPool pool(LoadBalancing balancing) {
+        EvaluatorProperties properties = new EvaluatorProperties();
+        properties.getCalculator().setEndpoints(List.of("localhost:18192", "localhost:18292", "localhost:18392"));
+        properties.getCalculator().setBalancing(balancing);
+        properties.getCalculator().setHealthCheckInterval(Duration.ofHours(1));
+        properties.getCalculator().getEjection().setConsecutiveFailures(2);
+        pool = new CalculatorEndpointPool(properties,
+                new StaticListableBeanFactory().getBeanProvider(GrpcChannelConfigurer.class),
+                new SimpleMeterRegistry());
+        return pool;
+    }
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @Test
+    void roundRobin() {
+        CalculatorEndpointPool pool = pool(LoadBalancing.ROUND_ROBIN);
+        List<CalculatorEndpoint> chosen = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            chosen.add(pool.choose());
+        }
+        assertEquals(pool.endpoints(), chosen.subList(0, 3));
+        assertEquals(pool.endpoints(), chosen.subList(3, 6));
+    }
+
+    @Test
+    void leastOutstanding() {
+        CalculatorEndpointPool pool = pool(LoadBalancing.LEAST_OUTSTANDING);
+        pool.endpoints().get(0).inFlight().set(3);
+        pool.endpoints().get(2).inFlight().set(1);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(pool.endpoints().get(1), pool.choose());
+        }
+    }
+
+    @Test
+    void powerOfTwoNeverPicksTheBusiestOfThree() {
+        CalculatorEndpointPool pool = pool(LoadBalancing.POWER_OF_TWO);
+        pool.endpoints().get(0).inFlight().set(5);
+        pool.endpoints().get(1).inFlight().set(1);
+        for (int i = 0; i < 50; i++) {
+            assertNotEquals(pool.endpoints().get(0), pool.choose());
+        }
+    }
+
+    @Test
+    void ejectsAfterConsecutiveFailuresUpToMaxEjectedPercent() {
+        CalculatorEndpointPool pool = pool(LoadBalancing.ROUND_ROBIN);
+        CalculatorEndpoint first = pool.endpoints().get(0);
+        CalculatorEndpoint second = pool.endpoints().get(1);
+
+        pool.recordFailure(first);
+        assertTrue(first.isAvailable());
+        pool.recordFailure(first);
+        assertFalse(first.isAvailable());
+        for (int i = 0; i < 10; i++) {
+            assertNotEquals(first, pool.choose());
+        }
+
+        // a second ejection would take out two of three endpoints, more than the default 50%
+        pool.recordFailure(second);
+        pool.recordFailure(second);
+        assertTrue(second.isAvailable());
+    }
+}
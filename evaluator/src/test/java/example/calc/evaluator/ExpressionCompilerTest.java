@@ -0,0 +1,103 @@
+package example.calc.evaluator;
+
+import example.demo.shared.domain.NumberToken;
+import example.demo.shared.domain.OperatorToken;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.domain.RefToken;
+import example.demo.shared.exceptions.DivisionByZeroException;
+import example.demo.shared.exceptions.InvalidExpressionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpressionCompilerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ExpressionCompiler compiler(int threshold) {
+        EvaluatorProperties properties = new EvaluatorProperties();
+        properties.getCompiler().setThreshold(threshold);
+        return new ExpressionCompiler(properties, registry);
+    }
+
+    // 4 9 * 3 - 2 /  ==  (a * b - c) / d
+    private static PostfixTape tape(double a, double b, double c, double d) {
+        return PostfixTape.fromTokens(List.of(
+                new NumberToken(a), new NumberToken(b), new OperatorToken('*'),
+                new NumberToken(c), new OperatorToken('-'),
+                new NumberToken(d), new OperatorToken('/')));
+    }
+
+    private double executions(String mode) {
+        return registry.get("evaluator.local.executions").tag("mode", mode).counter().count();
+    }
+
+    @Test
+    void compiledHandleMatchesInterpreter() throws Throwable {
+        PostfixTape tape = tape(4, 9, 3, 2);
+        assertEquals(16.5, ExpressionCompiler.interpret(tape));
+        assertEquals(16.5, (double) ExpressionCompiler.compile(tape).invokeExact(tape));
+    }
+
+    @Test
+    void shapeIsCompiledOnceThresholdIsReached() {
+        ExpressionCompiler compiler = compiler(3);
+
+        assertEquals(16.5, compiler.evaluate(tape(4, 9, 3, 2)));
+        assertEquals(2.0, compiler.evaluate(tape(1, 7, 1, 3)));
+        assertEquals(0.5, compiler.evaluate(tape(1, 2, 1, 2)));
+        // same shape, different literals: served by the handle compiled on the third execution
+        assertEquals(10.0, compiler.evaluate(tape(3, 4, 2, 1)));
+
+        assertEquals(2, executions("interpreted"));
+        assertEquals(2, executions("compiled"));
+        assertEquals(1, registry.get("evaluator.compiler.compilations").counter().count());
+    }
+
+    @Test
+    void thresholdOfOneCompilesOnTheFirstExecution() {
+        for (int threshold : new int[]{1, 0}) {
+            registry.clear();
+            ExpressionCompiler compiler = compiler(threshold);
+
+            assertEquals(16.5, compiler.evaluate(tape(4, 9, 3, 2)));
+            assertEquals(10.0, compiler.evaluate(tape(3, 4, 2, 1)));
+
+            assertEquals(0, executions("interpreted"));
+            assertEquals(2, executions("compiled"));
+            assertEquals(1, registry.get("evaluator.compiler.compilations").counter().count());
+        }
+    }
+
+    @Test
+    void refsReuseEarlierResults() throws Throwable {
+        // 3 4 * @2 +  ==  3*4 + 3*4
+        PostfixTape tape = PostfixTape.fromTokens(List.of(new NumberToken(3), new NumberToken(4),
+                new OperatorToken('*'), new RefToken(2), new OperatorToken('+')));
+        assertEquals(24.0, ExpressionCompiler.interpret(tape));
+        assertEquals(24.0, (double) ExpressionCompiler.compile(tape).invokeExact(tape));
+    }
+
+    @Test
+    void divisionByZeroInCompiledCode() {
+        ExpressionCompiler compiler = compiler(1);
+        assertThrows(DivisionByZeroException.class, () -> compiler.evaluate(tape(4, 9, 3, 0)));
+    }
+
+    @Test
+    void malformedTapesAreInvalidExpressions() {
+        // 1 +
+        PostfixTape missingOperand = PostfixTape.fromTokens(List.of(new NumberToken(1), new OperatorToken('+')));
+        // 1 2
+        PostfixTape missingOperator = PostfixTape.fromTokens(List.of(new NumberToken(1), new NumberToken(2)));
+
+        assertThrows(InvalidExpressionException.class, () -> ExpressionCompiler.interpret(missingOperand));
+        assertThrows(InvalidExpressionException.class, () -> ExpressionCompiler.compile(missingOperand));
+        assertThrows(InvalidExpressionException.class, () -> ExpressionCompiler.interpret(missingOperator));
+        assertThrows(InvalidExpressionException.class, () -> ExpressionCompiler.compile(missingOperator));
+    }
+}
@@ -0,0 +1,225 @@
+package example.calc.evaluator;
+
+import example.demo.shared.exceptions.DivisionByZeroException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpressionResultCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ExpressionResultCache enabledCache() {
+        EvaluatorProperties properties = new EvaluatorProperties();
+        properties.getResultCache().setEnabled(true);
+        return new ExpressionResultCache(properties, registry);
+    }
+
+    @Test
+    void normalize() {
+        assertEquals("1+2*3", ExpressionResultCache.normalize(" 1 + 2\t* 3 "));
+        assertEquals("1+2", ExpressionResultCache.normalize("1+2"));
+    }
+
+    @Test
+    void whitespaceBetweenNumbersIsKept() {
+        assertEquals("1 2+3", ExpressionResultCache.normalize("1 \t 2 + 3"));
+        assertEquals("12+3", ExpressionResultCache.normalize("12+3"));
+        assertEquals("1. 5*2", ExpressionResultCache.normalize(" 1.  5 * 2"));
+        assertNotEquals(ExpressionResultCache.normalize("1 2+3"), ExpressionResultCache.normalize("12+3"));
+    }
+
+    @Test
+    void whitespaceVariantsShareOneEvaluation() {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+
+        assertEquals(3.0, cache.get("1 + 2", e -> evaluations.incrementAndGet() + 2.0));
+        assertEquals(3.0, cache.get("1+2", e -> evaluations.incrementAndGet() + 2.0));
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void failuresAreCached() {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        DivisionByZeroException failure = new DivisionByZeroException("Division by zero error");
+
+        assertSame(failure, assertThrows(DivisionByZeroException.class, () -> cache.get("1/0", e -> {
+            evaluations.incrementAndGet();
+            throw failure;
+        })));
+        for (int i = 0; i < 2; i++) {
+            DivisionByZeroException cached = assertThrows(DivisionByZeroException.class, () -> cache.get("1/0", e -> {
+                evaluations.incrementAndGet();
+                throw failure;
+            }));
+            assertNotSame(failure, cached);
+            assertEquals(failure.getMessage(), cached.getMessage());
+        }
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void transientFailuresAreNotCached() {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RuntimeException.class, () -> cache.get("1+2", e -> {
+                evaluations.incrementAndGet();
+                throw new RuntimeException("Tokenization failed: UNAVAILABLE");
+            }));
+        }
+        assertEquals(3, evaluations.get());
+        assertEquals(3.0, cache.get("1+2", e -> 3.0));
+    }
+
+    @Test
+    void errorsDoNotLeaveTheEntryInFlight() throws Exception {
+        ExpressionResultCache cache = enabledCache();
+        CountDownLatch started = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Double> first = executor.submit(() -> cache.get("2*3", e -> {
+                started.countDown();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                throw new AssertionError("Tokens cannot be null");
+            }));
+            started.await();
+            Future<Double> second = executor.submit(() -> cache.get("2 * 3", e -> 6.0));
+
+            assertInstanceOf(AssertionError.class, assertThrows(ExecutionException.class, first::get).getCause());
+            // waited on the failed evaluation, or came after it and evaluated itself; either way it returns
+            try {
+                assertEquals(6.0, second.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertInstanceOf(RuntimeException.class, e.getCause());
+            }
+        }
+        assertEquals(6.0, cache.get("2*3", e -> 6.0));
+    }
+
+    @Test
+    void concurrentRequestsAreCoalesced() throws Exception {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Double> first = executor.submit(() -> cache.get("2*3", e -> {
+                evaluations.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                return 6.0;
+            }));
+            while (evaluations.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<Double> second = executor.submit(() -> cache.get("2 * 3", e -> evaluations.incrementAndGet()));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(6.0, first.get());
+            assertEquals(6.0, second.get());
+        }
+        assertEquals(1, evaluations.get());
+        assertEquals(1.0, registry.get("cache.coalesced").counter().count());
+    }
+
+    @Test
+    void asyncRequestsShareTheInFlightFuture() {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+
+        CompletableFuture<Double> first = cache.getAsync("2*3", e -> {
+            evaluations.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Double> second = cache.getAsync("2 * 3", e -> {
+            evaluations.incrementAndGet();
+            return CompletableFuture.completedFuture(0.0);
+        });
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        pending.complete(6.0);
+        assertEquals(6.0, first.join());
+        assertEquals(6.0, second.join());
+        assertEquals(1, evaluations.get());
+        assertEquals(1.0, registry.get("cache.coalesced").counter().count());
+    }
+
+    @Test
+    void asyncFailuresAreCached() {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        DivisionByZeroException failure = new DivisionByZeroException("Division by zero error");
+
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<Double> result = cache.getAsync("1/0", e -> {
+                evaluations.incrementAndGet();
+                return CompletableFuture.failedFuture(failure);
+            });
+            CompletionException thrown = assertThrows(CompletionException.class, result::join);
+            assertInstanceOf(DivisionByZeroException.class, thrown.getCause());
+            if (i == 0) {
+                assertSame(failure, thrown.getCause());
+            } else {
+                assertNotSame(failure, thrown.getCause());
+            }
+        }
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void asyncTransientFailuresAreNotCached() {
+        ExpressionResultCache cache = enabledCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+
+        CompletableFuture<Double> first = cache.getAsync("1+2", e -> {
+            evaluations.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Double> second = cache.getAsync("1+2", e -> {
+            evaluations.incrementAndGet();
+            return CompletableFuture.completedFuture(3.0);
+        });
+        RuntimeException failure = new RuntimeException("Tokenization failed: UNAVAILABLE");
+        pending.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertNotSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(3.0, cache.getAsync("1+2", e -> {
+            evaluations.incrementAndGet();
+            return CompletableFuture.completedFuture(3.0);
+        }).join());
+        assertEquals(2, evaluations.get());
+    }
+}
@@ -0,0 +1,209 @@
+package example.calc.evaluator;
+
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgerTest {
+
+    private static final StatusRuntimeException UNAVAILABLE = Status.UNAVAILABLE.asRuntimeException();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private Hedger hedger(int budgetCapacity, ExecutorService executor) {
+        EvaluatorProperties properties = new EvaluatorProperties();
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setPercentile(0.9);
+        properties.getHedging().setMinDelay(Duration.ofMillis(20));
+        properties.getHedging().getBudget().setCapacity(budgetCapacity);
+        properties.getHedging().getBudget().setRatio(0);
+        RetryBudget budget = new RetryBudget(properties, registry);
+        Hedger hedger = new Hedger("test", properties.getHedging(), budget, executor, registry,
+                e -> e instanceof StatusRuntimeException sre && sre.getStatus().getCode() == Status.Code.UNAVAILABLE);
+        for (int i = 0; i < Hedger.MIN_SAMPLES; i++) {
+            hedger.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return hedger;
+    }
+
+    private double count(String name) {
+        return registry.get(name).tag("client", "test").counter().count();
+    }
+
+    @Test
+    void noHedgeBeforeEnoughSamples() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            EvaluatorProperties properties = new EvaluatorProperties();
+            Hedger hedger = new Hedger("test", properties.getHedging(), new RetryBudget(properties, registry),
+                    executor, registry, e -> false);
+
+            assertEquals(Long.MAX_VALUE, hedger.delayNanos());
+        }
+    }
+
+    @Test
+    void delayFollowsPercentileWithFloor() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(10, executor);
+            // all samples are 1 ms, below the 20 ms floor
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(20), hedger.delayNanos());
+
+            for (int i = 0; i < 1_000; i++) {
+                hedger.record(TimeUnit.MILLISECONDS.toNanos(i < 850 ? 1 : 100));
+            }
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(100), hedger.delayNanos());
+        }
+    }
+
+    @Test
+    void slowCallIsHedgedAndTheLoserCancelled() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(10, executor);
+            AtomicInteger attempts = new AtomicInteger();
+            AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+            String result = hedger.call(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    Context context = Context.current();
+                    while (!context.isCancelled()) {
+                        Thread.onSpinWait();
+                    }
+                    primaryCancelled.set(true);
+                    return "primary";
+                }
+                return "hedge";
+            });
+
+            assertEquals("hedge", result);
+            assertEquals(2, attempts.get());
+            assertEquals(1.0, count("evaluator.hedging.hedges"));
+            assertEquals(1.0, count("evaluator.hedging.wins"));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertTrue(primaryCancelled.get());
+        }
+    }
+
+    @Test
+    void loserIgnoringTheContextIsInterrupted() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(10, executor);
+            AtomicInteger attempts = new AtomicInteger();
+            AtomicBoolean primaryInterrupted = new AtomicBoolean();
+
+            String result = hedger.call(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    // like a blocking HTTP call, which never looks at the gRPC Context
+                    try {
+                        Thread.sleep(Duration.ofSeconds(30));
+                    } catch (InterruptedException e) {
+                        primaryInterrupted.set(true);
+                    }
+                    return "primary";
+                }
+                return "hedge";
+            });
+
+            assertEquals("hedge", result);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertTrue(primaryInterrupted.get());
+        }
+    }
+
+    @Test
+    void fastCallIsNotHedged() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(10, executor);
+            AtomicInteger attempts = new AtomicInteger();
+
+            assertEquals("done", hedger.call(() -> {
+                attempts.incrementAndGet();
+                return "done";
+            }));
+            assertEquals(1, attempts.get());
+            assertEquals(0.0, count("evaluator.hedging.hedges"));
+        }
+    }
+
+    @Test
+    void unavailableIsRetriedOnce() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(10, executor);
+            AtomicInteger attempts = new AtomicInteger();
+
+            assertEquals("retried", hedger.call(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw UNAVAILABLE;
+                }
+                return "retried";
+            }));
+            assertEquals(1.0, count("evaluator.hedging.retries"));
+
+            AtomicInteger failing = new AtomicInteger();
+            assertSame(UNAVAILABLE, assertThrows(StatusRuntimeException.class, () -> hedger.call(() -> {
+                failing.incrementAndGet();
+                throw UNAVAILABLE;
+            })));
+            assertEquals(2, failing.get());
+        }
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(10, executor);
+            AtomicInteger attempts = new AtomicInteger();
+            StatusRuntimeException invalid = Status.INVALID_ARGUMENT.asRuntimeException();
+
+            assertSame(invalid, assertThrows(StatusRuntimeException.class, () -> hedger.call(() -> {
+                attempts.incrementAndGet();
+                throw invalid;
+            })));
+            assertEquals(1, attempts.get());
+        }
+    }
+
+    @Test
+    void exhaustedBudgetStopsRetries() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Hedger hedger = hedger(1, executor);
+            AtomicInteger attempts = new AtomicInteger();
+
+            for (int i = 0; i < 3; i++) {
+                assertThrows(StatusRuntimeException.class, () -> hedger.call(() -> {
+                    attempts.incrementAndGet();
+                    throw UNAVAILABLE;
+                }));
+            }
+            // one retry from the single token, none after that
+            assertEquals(4, attempts.get());
+            assertEquals(2.0, count("evaluator.hedging.budget.exhausted"));
+            assertFalse(registry.get("evaluator.hedging.budget.used").gauge().value() < 1.0);
+        }
+    }
+
+    @Test
+    void budgetWithoutCapacityIsUsedUp() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            hedger(0, executor);
+
+            assertEquals(1.0, registry.get("evaluator.hedging.budget.used").gauge().value());
+        }
+    }
+}
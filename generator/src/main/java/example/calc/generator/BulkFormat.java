@@ -0,0 +1,47 @@
+package example.calc.generator;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * How {@code GET /generate/bulk} writes its expressions, one per line.
+ */
+public enum BulkFormat {
+
+    /**
+     * {@code {"expression":"3 + 5 * (2 - 1)"}}; expressions hold nothing that needs escaping.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON) {
+        @Override
+        void write(Writer writer, String expression) throws IOException {
+            writer.write("{\"expression\":\"");
+            writer.write(expression);
+            writer.write("\"}\n");
+        }
+    },
+
+    /**
+     * The bare expression.
+     */
+    TEXT(MediaType.TEXT_PLAIN) {
+        @Override
+        void write(Writer writer, String expression) throws IOException {
+            writer.write(expression);
+            writer.write('\n');
+        }
+    };
+
+    private final MediaType mediaType;
+
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    abstract void write(Writer writer, String expression) throws IOException;
+}
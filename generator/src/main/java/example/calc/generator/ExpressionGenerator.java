@@ -0,0 +1,104 @@
+package example.calc.generator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates infix expressions of an {@link ExpressionShape} from a seed, so the same seed and shape always give the
+ * same expressions. Not thread safe; one generator serves one stream.
+ * <p>
+ * Each expression is built as a tree and written with only the parentheses it needs to keep that tree, so a
+ * repeated subtree reads the same everywhere and the tokenizer can recognize it. Where a divisor evaluates to zero,
+ * the operator becomes a {@code *}.
+ */
+public class ExpressionGenerator {
+
+    // recent operator subtrees kept per height for repeatRatio
+    private static final int POOL_SIZE = 16;
+    private static final int LITERAL = 3;
+
+    private final SplittableRandom random;
+    private final int depth;
+    private final char[] operators;
+    private final int minLiteral;
+    private final int literalBound;
+    private final double repeatRatio;
+    private final Subexpression[][] pool;
+    private final int[] pooled;
+
+    public ExpressionGenerator(ExpressionShape shape, long seed) {
+        shape.validate();
+        this.random = new SplittableRandom(seed);
+        this.depth = shape.depthOrDefault();
+        this.operators = operators(shape);
+        this.minLiteral = shape.minLiteralOrDefault();
+        this.literalBound = shape.maxLiteralOrDefault() + 1;
+        this.repeatRatio = shape.repeatRatioOrDefault();
+        this.pool = new Subexpression[depth + 1][POOL_SIZE];
+        this.pooled = new int[depth + 1];
+    }
+
+    /**
+     * One operator per unit of weight, so picking a random element honours the mix.
+     */
+    private static char[] operators(ExpressionShape shape) {
+        return ("+".repeat(shape.addOrDefault())
+                + "-".repeat(shape.subtractOrDefault())
+                + "*".repeat(shape.multiplyOrDefault())
+                + "/".repeat(shape.divideOrDefault())).toCharArray();
+    }
+
+    public String next() {
+        return nextSubexpression().text();
+    }
+
+    Subexpression nextSubexpression() {
+        return generate(depth);
+    }
+
+    private Subexpression generate(int height) {
+        if (height == 0) {
+            int literal = random.nextInt(minLiteral, literalBound);
+            return new Subexpression(Integer.toString(literal), LITERAL, literal);
+        }
+        if (repeatRatio > 0 && pooled[height] > 0 && random.nextDouble() < repeatRatio) {
+            return pool[height][random.nextInt(Math.min(pooled[height], POOL_SIZE))];
+        }
+
+        Subexpression deep = generate(height - 1);
+        Subexpression other = generate(random.nextInt(height));
+        boolean deepOnLeft = random.nextBoolean();
+        Subexpression left = deepOnLeft ? deep : other;
+        Subexpression right = deepOnLeft ? other : deep;
+        char operator = operators[random.nextInt(operators.length)];
+        if (operator == '/' && right.value() == 0) {
+            operator = '*';
+        }
+
+        Subexpression subexpression = combine(operator, left, right);
+        pool[height][pooled[height]++ % POOL_SIZE] = subexpression;
+        return subexpression;
+    }
+
+    private static Subexpression combine(char operator, Subexpression left, Subexpression right) {
+        int precedence = operator == '+' || operator == '-' ? 1 : 2;
+        // a right operand of equal precedence keeps its parentheses too: a - (b - c), and a * (b / c) for the
+        // same rounding as the tree
+        String text = (left.precedence() < precedence ? "(" + left.text() + ")" : left.text())
+                + " " + operator + " "
+                + (right.precedence() <= precedence ? "(" + right.text() + ")" : right.text());
+        double value = switch (operator) {
+            case '+' -> left.value() + right.value();
+            case '-' -> left.value() - right.value();
+            case '*' -> left.value() * right.value();
+            default -> left.value() / right.value();
+        };
+        return new Subexpression(text, precedence, value);
+    }
+
+    /**
+     * @param precedence of the outermost operator, {@code 3} for a literal
+     * @param value      what the expression evaluates to, in the order the evaluator does it
+     */
+    record Subexpression(String text, int precedence, double value) {
+    }
+}
@@ -0,0 +1,88 @@
+package example.calc.generator;
+
+/**
+ * Query parameters of {@code GET /generate/bulk} that decide what the expressions look like. Everything has a default.
+ *
+ * @param depth       height of each expression tree; the other branch of every operator gets a random height below
+ *                    its sibling's, so shapes range from a chain to a full tree of {@code 2^depth} literals
+ * @param add         relative weight of {@code +} among the operators, likewise {@code subtract}, {@code multiply}
+ *                    and {@code divide}; at most {@value #MAX_WEIGHT} each
+ * @param minLiteral  smallest literal, at least 0
+ * @param maxLiteral  largest literal, at most {@value #MAX_LITERAL}
+ * @param repeatRatio chance that an operator subtree is one generated before at the same height, in this
+ *                    expression or an earlier one; at the root it repeats the whole expression
+ */
+public record ExpressionShape(Integer depth,
+                              Integer add,
+                              Integer subtract,
+                              Integer multiply,
+                              Integer divide,
+                              Integer minLiteral,
+                              Integer maxLiteral,
+                              Double repeatRatio) {
+
+    static final int MAX_DEPTH = 12;
+    // the generator keeps one operator character per unit of weight
+    static final int MAX_WEIGHT = 100;
+    static final int MAX_LITERAL = 1_000_000_000;
+
+    int depthOrDefault() {
+        return depth != null ? depth : 3;
+    }
+
+    int addOrDefault() {
+        return add != null ? add : 1;
+    }
+
+    int subtractOrDefault() {
+        return subtract != null ? subtract : 1;
+    }
+
+    int multiplyOrDefault() {
+        return multiply != null ? multiply : 1;
+    }
+
+    int divideOrDefault() {
+        return divide != null ? divide : 1;
+    }
+
+    int minLiteralOrDefault() {
+        return minLiteral != null ? minLiteral : 1;
+    }
+
+    int maxLiteralOrDefault() {
+        return maxLiteral != null ? maxLiteral : 9;
+    }
+
+    double repeatRatioOrDefault() {
+        return repeatRatio != null ? repeatRatio : 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException for a shape no expression can have
+     */
+    void validate() {
+        if (depthOrDefault() < 0 || depthOrDefault() > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth must be between 0 and " + MAX_DEPTH + ": " + depthOrDefault());
+        }
+        int[] weights = {addOrDefault(), subtractOrDefault(), multiplyOrDefault(), divideOrDefault()};
+        int total = 0;
+        for (int weight : weights) {
+            if (weight < 0 || weight > MAX_WEIGHT) {
+                throw new IllegalArgumentException("Operator weights must be between 0 and " + MAX_WEIGHT + ": " + weight);
+            }
+            total += weight;
+        }
+        if (total == 0 && depthOrDefault() > 0) {
+            throw new IllegalArgumentException("At least one operator needs a positive weight");
+        }
+        if (minLiteralOrDefault() < 0 || maxLiteralOrDefault() < minLiteralOrDefault()
+                || maxLiteralOrDefault() > MAX_LITERAL) {
+            throw new IllegalArgumentException("Literals need 0 <= minLiteral <= maxLiteral <= " + MAX_LITERAL + ": "
+                    + minLiteralOrDefault() + ".." + maxLiteralOrDefault());
+        }
+        if (repeatRatioOrDefault() < 0 || repeatRatioOrDefault() > 1) {
+            throw new IllegalArgumentException("repeatRatio must be between 0 and 1: " + repeatRatioOrDefault());
+        }
+    }
+}
@@ -1,26 +1,79 @@
 package example.calc.generator;
 
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.logging.HotPathLog;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static example.calc.generator.Util.generateRandomExpression;
-import static example.demo.shared.Utils.Sleeper.sleep;
 
 @Slf4j
 @RestController
 @RequestMapping("/generate")
 public class GenerateController {
 
+    static final String SEED_HEADER = "X-Seed";
+    static final int MAX_BULK_COUNT = 1_000_000;
+
+    private final LatencyInjector.Endpoint latency;
+    private final LatencyInjector.Endpoint bulkLatency;
+    private final HotPathLog.Site generateLog;
+
+    public GenerateController(LatencyInjector latency, HotPathLog hotPathLog) {
+        this.latency = latency.endpoint("generate", Duration.ofMillis(100));
+        this.bulkLatency = latency.endpoint("generate-bulk", Duration.ZERO);
+        this.generateLog = hotPathLog.site(log, "generate");
+    }
+
     @GetMapping
     public String generateExpression(@RequestParam(defaultValue = "15") int length) {
-        sleep(100);
+        latency.inject();
         var expression = generateRandomExpression(length);
-        log.info("Generated random expression of length {}: {}", length, expression);
+        generateLog.info("Generated random expression of length {}: {}", () -> length, () -> expression);
         return expression;
     }
 
+    /**
+     * Streams {@code count} expressions of the given {@link ExpressionShape}, one per line, as they are generated.
+     * The same {@code seed} and shape give the same expressions; without one a random seed is used. Either way it
+     * is returned in the {@code X-Seed} header. A count or shape out of range is rejected before anything is streamed.
+     */
+    @GetMapping("/bulk")
+    public ResponseEntity<StreamingResponseBody> generateBulk(@RequestParam(defaultValue = "1000") int count,
+                                                              @RequestParam(required = false) Long seed,
+                                                              @RequestParam(defaultValue = "NDJSON") BulkFormat format,
+                                                              ExpressionShape shape) {
+        if (count < 0 || count > MAX_BULK_COUNT) {
+            throw new IllegalArgumentException("count must be between 0 and " + MAX_BULK_COUNT + ": " + count);
+        }
+        final long actualSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        final ExpressionGenerator generator = new ExpressionGenerator(shape, actualSeed);
+        log.info("Generating {} expressions with seed {} and {}", count, actualSeed, shape);
+        bulkLatency.inject();
 
+        StreamingResponseBody body = out -> {
+            // flushed to the client a buffer at a time, as chunks
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 64 * 1024);
+            for (int i = 0; i < count; i++) {
+                format.write(writer, generator.next());
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(SEED_HEADER, Long.toString(actualSeed))
+                .body(body);
+    }
 }
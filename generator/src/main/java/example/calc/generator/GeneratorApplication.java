@@ -1,9 +1,22 @@
 package example.calc.generator;
 
+import example.demo.shared.latency.LatencyEndpoint;
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.latency.LatencyProperties;
+import example.demo.shared.logging.HotPathLog;
+import example.demo.shared.logging.HotPathLogEndpoint;
+import example.demo.shared.logging.HotPathLogProperties;
+import example.demo.shared.tracing.AdaptiveSamplingConfig;
+import example.demo.shared.tracing.AdaptiveSamplingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+// the rest of shared is not needed here, so it is not scanned
+@Import({LatencyProperties.class, LatencyInjector.class, LatencyEndpoint.class,
+        HotPathLogProperties.class, HotPathLog.class, HotPathLogEndpoint.class,
+        AdaptiveSamplingProperties.class, AdaptiveSamplingConfig.class})
 public class GeneratorApplication {
 
     public static void main(String[] args) {
@@ -1,23 +1,30 @@
 package example.calc.generator;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Util {
 
+    private static final String OPERATORS = "+-*/";
+
+    /**
+     * A flat expression of single digits and operators, e.g. {@code 3 + 5 * 2}. {@code length} counts both; an
+     * even length is one less, since an expression cannot end with an operator.
+     */
     public static String generateRandomExpression(int length) {
-        Random random = new Random();
-        String operators = "+-*/";
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int tokens = length % 2 == 0 ? length - 1 : length;
         StringBuilder expression = new StringBuilder();
 
-        // todo: if length is even, string ends with an operator, which is not allowed
-        for (int i = 0; i < length; i++) {
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0) {
+                expression.append(' ');
+            }
             if (i % 2 == 0) { // Add a number
                 expression.append(random.nextInt(9) + 1); // Random digit from 1 to 9
             } else { // Add an operator
-                expression.append(operators.charAt(random.nextInt(operators.length())));
+                expression.append(OPERATORS.charAt(random.nextInt(OPERATORS.length())));
             }
-            expression.append(" ");
         }
-        return expression.toString().trim();
+        return expression.toString();
     }
 }
@@ -0,0 +1,163 @@
+package example.calc.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionGeneratorTest {
+
+    private static final Pattern LITERAL = Pattern.compile("\\d+");
+
+    private static ExpressionShape shape(Integer depth, Integer divide, Integer minLiteral, Integer maxLiteral,
+                                         Double repeatRatio) {
+        return new ExpressionShape(depth, null, null, null, divide, minLiteral, maxLiteral, repeatRatio);
+    }
+
+    private static List<String> generate(ExpressionShape shape, long seed, int count) {
+        ExpressionGenerator generator = new ExpressionGenerator(shape, seed);
+        List<String> expressions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expressions.add(generator.next());
+        }
+        return expressions;
+    }
+
+    @Test
+    void sameSeedSameExpressions() {
+        ExpressionShape shape = shape(4, null, null, null, 0.2);
+
+        assertEquals(generate(shape, 42, 100), generate(shape, 42, 100));
+        assertFalse(generate(shape, 42, 100).equals(generate(shape, 43, 100)));
+    }
+
+    @Test
+    void textEvaluatesToTheGeneratedTree() {
+        ExpressionGenerator generator = new ExpressionGenerator(shape(6, null, 0, 3, 0.3), 7);
+
+        for (int i = 0; i < 1_000; i++) {
+            ExpressionGenerator.Subexpression expression = generator.nextSubexpression();
+            double parsed = new Evaluator(expression.text()).evaluate();
+
+            assertEquals(expression.value(), parsed, 0.0, expression.text());
+            // zero literals are allowed, a zero divisor is not
+            assertTrue(Double.isFinite(parsed), expression.text());
+        }
+    }
+
+    @Test
+    void shapeIsRespected() {
+        ExpressionShape shape = new ExpressionShape(5, 0, 0, 1, 0, 10, 20, null);
+
+        for (String expression : generate(shape, 1, 200)) {
+            assertEquals(5, new Evaluator(expression).depth(), expression);
+            assertFalse(expression.contains("+") || expression.contains("-") || expression.contains("/"), expression);
+            Matcher literals = LITERAL.matcher(expression);
+            int count = 0;
+            while (literals.find()) {
+                int literal = Integer.parseInt(literals.group());
+                assertTrue(literal >= 10 && literal <= 20, expression);
+                count++;
+            }
+            assertTrue(count >= 6 && count <= 32, expression);
+        }
+    }
+
+    @Test
+    void repeatRatioRepeatsSubexpressions() {
+        assertEquals(1, new HashSet<>(generate(shape(3, null, null, null, 1.0), 1, 100)).size());
+
+        Set<String> distinct = new HashSet<>(generate(shape(8, null, null, null, 0.0), 1, 100));
+        Set<String> repeated = new HashSet<>(generate(shape(8, null, null, null, 0.5), 1, 100));
+        assertEquals(100, distinct.size());
+        assertTrue(repeated.size() < 100, "distinct " + repeated.size());
+    }
+
+    @Test
+    void invalidShapesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionGenerator(shape(13, null, null, null, null), 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionGenerator(shape(null, null, 5, 4, null), 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExpressionGenerator(shape(null, null, null, null, 1.5), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExpressionGenerator(new ExpressionShape(2, 0, 0, 0, 0, null, null, null), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExpressionGenerator(shape(null, null, null, Integer.MAX_VALUE, null), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExpressionGenerator(new ExpressionShape(2, Integer.MAX_VALUE, null, null, null, null, null, null), 1));
+    }
+
+    /**
+     * Precedence climbing over the generated text, left associative like the tokenizer.
+     */
+    private static final class Evaluator {
+
+        private final String expression;
+        private int position;
+
+        Evaluator(String expression) {
+            this.expression = expression.replace(" ", "");
+        }
+
+        double evaluate() {
+            return parse().value();
+        }
+
+        int depth() {
+            return parse().height();
+        }
+
+        private Parsed parse() {
+            position = 0;
+            Parsed parsed = expression(0);
+            assertEquals(expression.length(), position, expression);
+            return parsed;
+        }
+
+        private Parsed expression(int minPrecedence) {
+            Parsed left = operand();
+            while (position < expression.length()) {
+                char operator = expression.charAt(position);
+                int precedence = operator == '+' || operator == '-' ? 1 : operator == '*' || operator == '/' ? 2 : 0;
+                if (precedence == 0 || precedence < minPrecedence) {
+                    break;
+                }
+                position++;
+                Parsed right = expression(precedence + 1);
+                double value = switch (operator) {
+                    case '+' -> left.value() + right.value();
+                    case '-' -> left.value() - right.value();
+                    case '*' -> left.value() * right.value();
+                    default -> left.value() / right.value();
+                };
+                left = new Parsed(value, Math.max(left.height(), right.height()) + 1);
+            }
+            return left;
+        }
+
+        private Parsed operand() {
+            if (expression.charAt(position) == '(') {
+                position++;
+                Parsed parsed = expression(0);
+                assertEquals(')', expression.charAt(position++), expression);
+                return parsed;
+            }
+            int start = position;
+            while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+                position++;
+            }
+            return new Parsed(Long.parseLong(expression.substring(start, position)), 0);
+        }
+
+        private record Parsed(double value, int height) {
+        }
+    }
+}
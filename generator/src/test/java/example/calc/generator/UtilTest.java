@@ -6,6 +6,9 @@ import org.junit.jupiter.api.Test;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class UtilTest {
 
     @BeforeEach
@@ -24,4 +27,14 @@ class UtilTest {
         System.out.println(csv);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void expressionsEndWithANumber() {
+        for (int length = 1; length <= 16; length++) {
+            String[] tokens = Util.generateRandomExpression(length).split(" ");
+
+            assertEquals(length % 2 == 0 ? length - 1 : length, tokens.length);
+            assertTrue(Character.isDigit(tokens[tokens.length - 1].charAt(0)), String.join(" ", tokens));
+        }
+    }
+}
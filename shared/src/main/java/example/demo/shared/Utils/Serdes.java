@@ -23,6 +23,14 @@ public class Serdes {
         }
     }
 
+    public byte[] serializeToBytes(Object object) {
+        try {
+            return objectMapper.writeValueAsBytes(object);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing object", e);
+        }
+    }
+
     public <T> T deserialize(String json, Class<T> clazz) {
         try {
             return objectMapper.readValue(json, clazz);
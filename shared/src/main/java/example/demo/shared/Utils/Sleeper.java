@@ -1,11 +0,0 @@
-package example.demo.shared.Utils;
-
-public class Sleeper {
-    public static void sleep(int ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-}
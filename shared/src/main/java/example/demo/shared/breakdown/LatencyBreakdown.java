@@ -0,0 +1,119 @@
+package example.demo.shared.breakdown;
+
+import io.grpc.Metadata;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Where the time of one request went, per stage, in the {@code Server-Timing} header format, e.g.
+ * {@code tokenize;dur=101.2, calculator;dur=43.7;count=7, tokens;count=15}.
+ * <p>
+ * The breakdown of the current request is kept in a thread local that micrometer's context propagation carries
+ * over to executor threads and async callbacks ({@link LatencyBreakdownAccessor}), so the stages can be recorded
+ * wherever they run. Recording without a current breakdown does nothing. A service returns its breakdown in the
+ * {@link #TRAILER} of the gRPC call, and a caller can {@link #include} it in its own, each stage prefixed with the
+ * hop it came from: the evaluator's {@code total} becomes {@code evaluator.total} in the tester's breakdown.
+ */
+public final class LatencyBreakdown {
+
+    public static final String HEADER = "Server-Timing";
+    public static final Metadata.Key<String> TRAILER = Metadata.Key.of("server-timing", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final ThreadLocal<LatencyBreakdown> CURRENT = new ThreadLocal<>();
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final List<String> included = new ArrayList<>();
+
+    /**
+     * @return the breakdown of the request being handled, or null
+     */
+    public static LatencyBreakdown current() {
+        return CURRENT.get();
+    }
+
+    static void set(LatencyBreakdown breakdown) {
+        if (breakdown == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(breakdown);
+        }
+    }
+
+    /**
+     * Runs {@code action} with {@code breakdown} as the current one.
+     */
+    public static <T> T callWith(LatencyBreakdown breakdown, Supplier<T> action) {
+        LatencyBreakdown previous = CURRENT.get();
+        set(breakdown);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * Adds {@code nanos} to the stage's duration and counts one more occurrence.
+     */
+    public synchronized void time(String stage, long nanos) {
+        Stage entry = stages.computeIfAbsent(stage, key -> new Stage());
+        entry.nanos += nanos;
+        entry.count++;
+        entry.timed = true;
+    }
+
+    /**
+     * Records a value, such as a size, rather than a duration.
+     */
+    public synchronized void count(String stage, long value) {
+        stages.computeIfAbsent(stage, key -> new Stage()).count += value;
+    }
+
+    /**
+     * Appends a downstream service's breakdown, e.g. from its {@link #TRAILER}, with every stage name prefixed by
+     * {@code hop} so it cannot be mistaken for, or collide with, a stage of this service or of another hop.
+     */
+    public synchronized void include(String hop, String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return;
+        }
+        for (String entry : headerValue.split(",")) {
+            String trimmed = entry.strip();
+            if (!trimmed.isEmpty()) {
+                included.add(hop + "." + trimmed);
+            }
+        }
+    }
+
+    public synchronized String toHeaderValue() {
+        List<String> entries = new ArrayList<>(stages.size() + included.size());
+        stages.forEach((name, stage) -> entries.add(stage.format(name)));
+        entries.addAll(included);
+        return String.join(", ", entries);
+    }
+
+    @Override
+    public String toString() {
+        return toHeaderValue();
+    }
+
+    private static final class Stage {
+        private long nanos;
+        private long count;
+        private boolean timed;
+
+        String format(String name) {
+            if (!timed) {
+                return name + ";count=" + count;
+            }
+            String duration = name + ";dur=" + String.format(Locale.ROOT, "%.2f", nanos / NANOS_PER_MILLI);
+            return count == 1 ? duration : duration + ";count=" + count;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package example.demo.shared.breakdown;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * Carries the current {@link LatencyBreakdown} across threads along with the tracing context. Registered through
+ * {@code META-INF/services}, so every {@code ContextSnapshot} includes it.
+ */
+public class LatencyBreakdownAccessor implements ThreadLocalAccessor<LatencyBreakdown> {
+
+    public static final String KEY = "latency.breakdown";
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public LatencyBreakdown getValue() {
+        return LatencyBreakdown.current();
+    }
+
+    @Override
+    public void setValue(LatencyBreakdown value) {
+        LatencyBreakdown.set(value);
+    }
+
+    @Override
+    public void setValue() {
+        LatencyBreakdown.set(null);
+    }
+}
@@ -0,0 +1,82 @@
+package example.demo.shared.breakdown;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Gives every unary call a {@link LatencyBreakdown}, current while the call's handler runs, and returns it with the
+ * call's total time in the {@link LatencyBreakdown#TRAILER}. Streaming calls are passed through.
+ * <p>
+ * Register one per service, e.g. {@code @GrpcService(interceptorNames = "evaluatorLatencyBreakdown")}.
+ */
+public class LatencyBreakdownServerInterceptor implements ServerInterceptor {
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY) {
+            return next.startCall(call, headers);
+        }
+
+        LatencyBreakdown breakdown = new LatencyBreakdown();
+        long start = System.nanoTime();
+        ServerCall<ReqT, RespT> timedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                breakdown.time("total", System.nanoTime() - start);
+                trailers.put(LatencyBreakdown.TRAILER, breakdown.toHeaderValue());
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener = LatencyBreakdown.callWith(breakdown, () -> next.startCall(timedCall, headers));
+        // the handler runs in these callbacks, possibly each on another thread
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                LatencyBreakdown.callWith(breakdown, () -> {
+                    super.onMessage(message);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onHalfClose() {
+                LatencyBreakdown.callWith(breakdown, () -> {
+                    super.onHalfClose();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onCancel() {
+                LatencyBreakdown.callWith(breakdown, () -> {
+                    super.onCancel();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onComplete() {
+                LatencyBreakdown.callWith(breakdown, () -> {
+                    super.onComplete();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onReady() {
+                LatencyBreakdown.callWith(breakdown, () -> {
+                    super.onReady();
+                    return null;
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package example.demo.shared.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded memoization table for pure binary operations {@code (opcode, a, b) -> result}.
+ * <p>
+ * Keys and values live in parallel primitive arrays, so neither lookups nor inserts box. The table is two-way set
+ * associative: a key hashes to a set of two slots and, when both are taken, the older entry is evicted. Entries also
+ * expire after a fixed time-to-live. Sets are guarded by a small pool of {@link StampedLock}s and read optimistically.
+ * <p>
+ * Registers {@code cache.gets}, tagged like Micrometer's own cache binders, and {@code operation.cache.evictions},
+ * tagged by cache name and {@code cause}. Evictions get their own name because the binders' {@code cache.evictions}
+ * has no {@code cause} tag, and a meter name must have the same tag keys everywhere.
+ */
+public class OperationCache {
+
+    /**
+     * Returned by {@link #lookup} on a miss. A signalling NaN payload that arithmetic never produces; a result with
+     * this exact bit pattern is simply not cached.
+     */
+    public static final long MISS = 0x7ff0_dead_beef_0001L;
+
+    private static final int WAYS = 2;
+    private static final int LOCK_STRIPES = 64;
+
+    private final int setMask;
+    private final long ttlNanos;
+
+    // opcode + 1, so that 0 marks an empty slot
+    private final byte[] opcodes;
+    private final long[] aBits;
+    private final long[] bBits;
+    private final long[] resultBits;
+    private final long[] insertedAt;
+    private final StampedLock[] locks;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiryEvictions;
+
+    public OperationCache(String name, int maximumSize, Duration ttl, MeterRegistry registry) {
+        int sets = Integer.highestOneBit(Math.max(maximumSize / WAYS, 1));
+        this.setMask = sets - 1;
+        this.ttlNanos = ttl == null || ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+
+        int slots = sets * WAYS;
+        this.opcodes = new byte[slots];
+        this.aBits = new long[slots];
+        this.bBits = new long[slots];
+        this.resultBits = new long[slots];
+        this.insertedAt = new long[slots];
+        this.locks = new StampedLock[Math.min(LOCK_STRIPES, sets)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new StampedLock();
+        }
+
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(registry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(registry);
+        this.sizeEvictions = Counter.builder("operation.cache.evictions").tag("cache", name).tag("cause", "size")
+                .register(registry);
+        this.expiryEvictions = Counter.builder("operation.cache.evictions").tag("cache", name).tag("cause", "expired")
+                .register(registry);
+    }
+
+    /**
+     * Creates a cache from {@code properties}, or returns {@code null} when the configured placement does not include
+     * the calling side.
+     */
+    public static OperationCache create(String name, OperationCacheProperties properties, boolean serverSide,
+                                        MeterRegistry registry) {
+        boolean enabled = serverSide ? properties.getPlacement().isServer() : properties.getPlacement().isClient();
+        if (!enabled) {
+            return null;
+        }
+        return new OperationCache(name, properties.getMaximumSize(), properties.getTtl(), registry);
+    }
+
+    /**
+     * @return the raw bits of the cached result, or {@link #MISS}
+     */
+    public long lookup(int opcode, double a, double b) {
+        final long ka = Double.doubleToRawLongBits(a);
+        final long kb = Double.doubleToRawLongBits(b);
+        final byte op = (byte) (opcode + 1);
+        final int set = set(op, ka, kb);
+        final StampedLock lock = locks[set & (locks.length - 1)];
+
+        long stamp = lock.tryOptimisticRead();
+        int slot = find(set, op, ka, kb);
+        long result = slot < 0 ? MISS : resultBits[slot];
+        long inserted = slot < 0 ? 0 : insertedAt[slot];
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = find(set, op, ka, kb);
+                result = slot < 0 ? MISS : resultBits[slot];
+                inserted = slot < 0 ? 0 : insertedAt[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if (slot < 0 || System.nanoTime() - inserted > ttlNanos) {
+            misses.increment();
+            return MISS;
+        }
+        hits.increment();
+        return result;
+    }
+
+    public void put(int opcode, double a, double b, double result) {
+        final long bits = Double.doubleToRawLongBits(result);
+        if (bits == MISS) {
+            return;
+        }
+        final long ka = Double.doubleToRawLongBits(a);
+        final long kb = Double.doubleToRawLongBits(b);
+        final byte op = (byte) (opcode + 1);
+        final int set = set(op, ka, kb);
+        final StampedLock lock = locks[set & (locks.length - 1)];
+        final long now = System.nanoTime();
+
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(set, op, ka, kb);
+            if (slot < 0) {
+                slot = victim(set, now);
+            }
+            opcodes[slot] = op;
+            aBits[slot] = ka;
+            bBits[slot] = kb;
+            resultBits[slot] = bits;
+            insertedAt[slot] = now;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int find(int set, byte op, long ka, long kb) {
+        final int base = set * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (opcodes[slot] == op && aBits[slot] == ka && bBits[slot] == kb) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // picks an empty slot, else an expired one, else the oldest; must hold the write lock
+    private int victim(int set, long now) {
+        final int base = set * WAYS;
+        int oldest = base;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (opcodes[slot] == 0) {
+                return slot;
+            }
+            if (insertedAt[slot] - insertedAt[oldest] < 0) {
+                oldest = slot;
+            }
+        }
+        if (now - insertedAt[oldest] > ttlNanos) {
+            expiryEvictions.increment();
+        } else {
+            sizeEvictions.increment();
+        }
+        return oldest;
+    }
+
+    private int set(byte op, long ka, long kb) {
+        // doubles of small integers have all-zero low bits, so mix thoroughly (murmur3 fmix64) before masking
+        long h = ka ^ Long.rotateLeft(kb, 32) * 0x9E3779B97F4A7C15L ^ op;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h & setMask;
+    }
+}
@@ -0,0 +1,32 @@
+package example.demo.shared.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "operation-cache")
+public class OperationCacheProperties {
+
+    private Placement placement = Placement.NONE;
+    private int maximumSize = 4096;
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * Where calculator results are memoized: on the calculator server, in the evaluator's client, or both.
+     */
+    public enum Placement {
+        NONE, SERVER, CLIENT, BOTH;
+
+        public boolean isServer() {
+            return this == SERVER || this == BOTH;
+        }
+
+        public boolean isClient() {
+            return this == CLIENT || this == BOTH;
+        }
+    }
+}
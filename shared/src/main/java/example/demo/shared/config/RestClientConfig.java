@@ -7,6 +7,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
 import java.net.http.HttpClient;
 import java.util.concurrent.Executors;
 
@@ -31,14 +33,37 @@ public class RestClientConfig {
 
         if (isVirtualThreadEnabled) {
             // separate Executor for REST calls ? might help in avoiding contention ?
-            final HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
-            builder = builder.requestFactory(new JdkClientHttpRequestFactory(httpClient));
-        }
-        if (restClientProperties.isProxyEnabled()) {
+            final HttpClient httpClient = httpClientBuilder(restClientProperties)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            final JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(restClientProperties.getReadTimeout());
+            builder = builder.requestFactory(requestFactory);
+        } else if (restClientProperties.isProxyEnabled()) {
             throw new UnsupportedOperationException(); // todo
         }
 
         builder.baseUrl(restClientProperties.getBaseUrl());
         return builder.build();
     }
+
+    /**
+     * A JDK {@link HttpClient} configured from {@link RestClientProperties}: HTTP/1.1, the connect timeout and the
+     * proxy, if enabled. The read timeout is per request; clients that bypass {@link RestClient} set it themselves.
+     */
+    public static HttpClient.Builder httpClientBuilder(RestClientProperties restClientProperties) {
+        // the JDK client would otherwise try to upgrade every connection to HTTP/2
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(restClientProperties.getConnectTimeout());
+        if (restClientProperties.isProxyEnabled()) {
+            if (restClientProperties.getProxyHost() == null || restClientProperties.getProxyPort() == null) {
+                throw new IllegalStateException(
+                        "restclient.proxy-host and restclient.proxy-port are required with restclient.proxy-enabled");
+            }
+            builder.proxy(ProxySelector.of(
+                    new InetSocketAddress(restClientProperties.getProxyHost(), restClientProperties.getProxyPort())));
+        }
+        return builder;
+    }
 }
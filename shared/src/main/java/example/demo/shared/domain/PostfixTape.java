@@ -0,0 +1,244 @@
+package example.demo.shared.domain;
+
+import com.google.protobuf.ByteString;
+import example.demo.shared.proto.TokenizerOuterClass;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, packed form of a postfix expression: one opcode byte per token plus a {@code double[]} holding the
+ * operands in order. {@link #PUSH} pushes the next operand; any other opcode is the operator character
+ * ({@code + - * /}) applied to the top two values.
+ * <p>
+ * {@link #REF} pushes again the result of an earlier token, turning the expression into a DAG; it also consumes the
+ * next operand slot, which holds the index of the referenced token.
+ * <p>
+ * Compared to a {@code List<Token>} this is two arrays instead of one record per token, it can be evaluated on a
+ * primitive {@code double} stack, and it has a compact binary encoding ({@link #toBytes()}) for the wire.
+ */
+public final class PostfixTape {
+
+    public static final byte PUSH = 0;
+    public static final byte REF = 1;
+
+    public static final String MEDIA_TYPE = "application/x-postfix-tape";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES + Integer.BYTES;
+
+    private final byte[] opcodes;
+    private final double[] operands;
+
+    private PostfixTape(byte[] opcodes, double[] operands) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+    }
+
+    /**
+     * @param opcodes  copied
+     * @param operands copied
+     */
+    public static PostfixTape of(byte[] opcodes, double[] operands) {
+        return validated(opcodes.clone(), operands.clone());
+    }
+
+    public static PostfixTape fromTokens(List<Token> tokens) {
+        byte[] opcodes = new byte[tokens.size()];
+        double[] operands = new double[tokens.size()];
+        int operandCount = 0;
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (tokens.get(i)) {
+                case NumberToken numberToken -> {
+                    opcodes[i] = PUSH;
+                    operands[operandCount++] = numberToken.value();
+                }
+                case OperatorToken operatorToken -> opcodes[i] = (byte) operatorToken.operator();
+                case RefToken refToken -> {
+                    opcodes[i] = REF;
+                    operands[operandCount++] = refToken.index();
+                }
+            }
+        }
+        return new PostfixTape(opcodes, Arrays.copyOf(operands, operandCount));
+    }
+
+    public List<Token> toTokens() {
+        List<Token> tokens = new ArrayList<>(opcodes.length);
+        int operand = 0;
+        for (byte opcode : opcodes) {
+            tokens.add(switch (opcode) {
+                case PUSH -> new NumberToken(operands[operand++]);
+                case REF -> new RefToken((int) operands[operand++]);
+                default -> new OperatorToken((char) opcode);
+            });
+        }
+        return tokens;
+    }
+
+    public static PostfixTape fromProto(TokenizerOuterClass.TokenizeResponse response) {
+        double[] operands = new double[response.getOperandsCount()];
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = response.getOperands(i);
+        }
+        return validated(response.getOpcodes().toByteArray(), operands);
+    }
+
+    public TokenizerOuterClass.TokenizeResponse toProto() {
+        TokenizerOuterClass.TokenizeResponse.Builder response = TokenizerOuterClass.TokenizeResponse.newBuilder()
+                .setOpcodes(ByteString.copyFrom(opcodes));
+        for (double operand : operands) {
+            response.addOperands(operand);
+        }
+        return response.build();
+    }
+
+    /**
+     * Binary encoding: a version byte, the token and operand counts as 32-bit ints, the opcodes, then the operands as
+     * 64-bit IEEE doubles, all little-endian.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + opcodes.length + Double.BYTES * operands.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put(FORMAT_VERSION)
+                .putInt(opcodes.length)
+                .putInt(operands.length)
+                .put(opcodes);
+        buffer.asDoubleBuffer().put(operands);
+        return buffer.array();
+    }
+
+    public static PostfixTape fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < HEADER_BYTES || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a postfix tape");
+        }
+        int tokenCount = buffer.getInt();
+        int operandCount = buffer.getInt();
+        if (tokenCount < 0 || operandCount < 0 || operandCount > tokenCount
+                || bytes.length != HEADER_BYTES + tokenCount + (long) Double.BYTES * operandCount) {
+            throw new IllegalArgumentException("Corrupt postfix tape");
+        }
+        byte[] opcodes = new byte[tokenCount];
+        buffer.get(opcodes);
+        double[] operands = new double[operandCount];
+        buffer.asDoubleBuffer().get(operands);
+        return validated(opcodes, operands);
+    }
+
+    public int size() {
+        return opcodes.length;
+    }
+
+    public byte opcode(int index) {
+        return opcodes[index];
+    }
+
+    /**
+     * @param index operand index, i.e. the number of {@link #PUSH} and {@link #REF} opcodes before it
+     */
+    public double operand(int index) {
+        return operands[index];
+    }
+
+    /**
+     * @param index operand index of a {@link #REF}
+     * @return the token index whose result the {@link #REF} pushes
+     */
+    public int ref(int index) {
+        return (int) operands[index];
+    }
+
+    public boolean hasRefs() {
+        for (byte opcode : opcodes) {
+            if (opcode == REF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int operandCount() {
+        return operands.length;
+    }
+
+    public int operatorCount() {
+        return opcodes.length - operands.length;
+    }
+
+    /**
+     * The opcodes and {@link #REF} targets as a string: expressions that differ only in their literals share the
+     * same shape.
+     */
+    public String shape() {
+        String shape = new String(opcodes, StandardCharsets.ISO_8859_1);
+        if (!hasRefs()) {
+            return shape;
+        }
+        StringBuilder sb = new StringBuilder(shape);
+        int operand = 0;
+        for (byte opcode : opcodes) {
+            if (opcode == REF) {
+                sb.append('@').append(ref(operand));
+            }
+            if (opcode == PUSH || opcode == REF) {
+                operand++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static PostfixTape validated(byte[] opcodes, double[] operands) {
+        int slots = 0;
+        for (int i = 0; i < opcodes.length; i++) {
+            if (opcodes[i] == REF && slots < operands.length) {
+                double target = operands[slots];
+                if (target != (int) target || target < 0 || target >= i) {
+                    throw new IllegalArgumentException("Reference at token " + i + " does not point to an earlier token: " + target);
+                }
+            }
+            if (opcodes[i] == PUSH || opcodes[i] == REF) {
+                slots++;
+            }
+        }
+        if (slots != operands.length) {
+            throw new IllegalArgumentException("Postfix tape has " + slots + " pushes but " + operands.length + " operands");
+        }
+        return new PostfixTape(opcodes, operands);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PostfixTape that
+                && Arrays.equals(opcodes, that.opcodes)
+                && Arrays.equals(operands, that.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(opcodes) + Arrays.hashCode(operands);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int operand = 0;
+        for (byte opcode : opcodes) {
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            if (opcode == PUSH) {
+                sb.append(operands[operand++]);
+            } else if (opcode == REF) {
+                sb.append('@').append(ref(operand++));
+            } else {
+                sb.append((char) opcode);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package example.demo.shared.domain;
+
+// Record for a repeated subexpression: pushes again the result of the postfix token at index
+public record RefToken(int index) implements Token {
+    @Override
+    public String toString() {
+        return "@" + index;
+    }
+}
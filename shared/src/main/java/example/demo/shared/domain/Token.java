@@ -6,8 +6,9 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 @JsonSubTypes({
         @JsonSubTypes.Type(value = NumberToken.class, name = "number"),
-        @JsonSubTypes.Type(value = OperatorToken.class, name = "operator")
+        @JsonSubTypes.Type(value = OperatorToken.class, name = "operator"),
+        @JsonSubTypes.Type(value = RefToken.class, name = "ref")
 })
-public sealed interface Token permits NumberToken, OperatorToken {
+public sealed interface Token permits NumberToken, OperatorToken, RefToken {
 }
 
@@ -0,0 +1,18 @@
+package example.demo.shared.exceptions;
+
+/**
+ * An expression that cannot be tokenized or parsed, with the position of the offending character.
+ */
+public class InvalidExpressionException extends IllegalArgumentException {
+
+    private final int position;
+
+    public InvalidExpressionException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
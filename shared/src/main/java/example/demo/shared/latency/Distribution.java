@@ -0,0 +1,17 @@
+package example.demo.shared.latency;
+
+/**
+ * Shape of the injected latency. {@code duration} is the profile's main parameter in every case.
+ */
+public enum Distribution {
+    /** always {@code duration} */
+    FIXED,
+    /** between {@code min} and {@code max}; by default 0 to twice {@code duration}, averaging {@code duration} */
+    UNIFORM,
+    /** mean {@code duration} and standard deviation {@code stddev} (by default a quarter of it), cut off at 0 */
+    NORMAL,
+    /** median {@code duration}, with the log of the latency spread by {@code sigma}: a moderately long tail */
+    LOG_NORMAL,
+    /** at least {@code duration}, with a power-law tail of shape {@code alpha}; the smaller alpha, the heavier */
+    PARETO
+}
@@ -0,0 +1,70 @@
+package example.demo.shared.latency;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code /actuator/latency}: shows the latency profiles and changes them without a restart, e.g.
+ * <pre>
+ * curl -X POST localhost:8092/actuator/latency/calculate -H 'Content-Type: application/json' \
+ *      -d '{"distribution": "PARETO", "duration": "5ms", "alpha": 1.5}'
+ * </pre>
+ * Fields left out keep their current value; DELETE goes back to the configured profile.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyInjector injector;
+
+    public LatencyEndpoint(LatencyInjector injector) {
+        this.injector = injector;
+    }
+
+    @ReadOperation
+    public Map<String, LatencyProperties.Profile> profiles() {
+        return injector.profiles();
+    }
+
+    @ReadOperation
+    public LatencyProperties.Profile profile(@Selector String endpoint) {
+        return injector.profile(endpoint);
+    }
+
+    @WriteOperation
+    public LatencyProperties.Profile update(@Selector String endpoint,
+                                           @Nullable Distribution distribution,
+                                           @Nullable LatencyMode mode,
+                                           @Nullable Duration duration,
+                                           @Nullable Duration min,
+                                           @Nullable Duration max,
+                                           @Nullable Duration stddev,
+                                           @Nullable Double sigma,
+                                           @Nullable Double alpha,
+                                           @Nullable Duration cap) {
+        return injector.update(endpoint, profile -> {
+            if (distribution != null) profile.setDistribution(distribution);
+            if (mode != null) profile.setMode(mode);
+            if (duration != null) profile.setDuration(duration);
+            if (min != null) profile.setMin(min);
+            if (max != null) profile.setMax(max);
+            if (stddev != null) profile.setStddev(stddev);
+            if (sigma != null) profile.setSigma(sigma);
+            if (alpha != null) profile.setAlpha(alpha);
+            if (cap != null) profile.setCap(cap);
+        });
+    }
+
+    @DeleteOperation
+    public LatencyProperties.Profile reset(@Selector String endpoint) {
+        return injector.reset(endpoint);
+    }
+}
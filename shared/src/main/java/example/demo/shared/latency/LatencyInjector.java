@@ -0,0 +1,224 @@
+package example.demo.shared.latency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Simulated work for the demo services, in place of a fixed sleep.
+ * <p>
+ * Each call site asks for its {@link Endpoint} once, with the sleep it used to have as the default, and calls
+ * {@link Endpoint#inject()} where the work would happen. {@link LatencyProperties} can give an endpoint another
+ * {@link Distribution} or {@link LatencyMode}, and {@link LatencyEndpoint} changes it while the service runs.
+ * Every injection is timed as {@code latency.injected}, tagged by endpoint and mode.
+ */
+@Slf4j
+@Component
+public class LatencyInjector {
+
+    private final LatencyProperties properties;
+    private final MeterRegistry registry;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public LatencyInjector(LatencyProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public Endpoint endpoint(String name, Duration defaultDuration) {
+        return endpoints.computeIfAbsent(name, key -> new Endpoint(key, defaultDuration, configured(key), registry));
+    }
+
+    /**
+     * The profiles in effect, with defaults filled in.
+     */
+    public Map<String, LatencyProperties.Profile> profiles() {
+        Map<String, LatencyProperties.Profile> profiles = new LinkedHashMap<>();
+        endpoints.keySet().stream().sorted().forEach(name -> profiles.put(name, endpoints.get(name).profile()));
+        return Collections.unmodifiableMap(profiles);
+    }
+
+    public LatencyProperties.Profile profile(String name) {
+        Endpoint endpoint = endpoints.get(name);
+        return endpoint != null ? endpoint.profile() : null;
+    }
+
+    /**
+     * Changes an endpoint's profile in place; returns the new profile, or null for an endpoint never asked for.
+     * Concurrent changes to the same endpoint are applied one after the other, each to the result of the previous.
+     */
+    public LatencyProperties.Profile update(String name, Consumer<LatencyProperties.Profile> change) {
+        final LatencyProperties.Profile[] updated = new LatencyProperties.Profile[1];
+        endpoints.computeIfPresent(name, (key, endpoint) -> {
+            LatencyProperties.Profile profile = endpoint.profile();
+            change.accept(profile);
+            endpoint.apply(profile);
+            log.info("Latency profile of {} changed to {}", key, profile);
+            updated[0] = endpoint.profile();
+            return endpoint;
+        });
+        return updated[0];
+    }
+
+    /**
+     * Puts an endpoint back on its configured profile.
+     */
+    public LatencyProperties.Profile reset(String name) {
+        final LatencyProperties.Profile[] reset = new LatencyProperties.Profile[1];
+        endpoints.computeIfPresent(name, (key, endpoint) -> {
+            endpoint.apply(configured(key));
+            log.info("Latency profile of {} reset", key);
+            reset[0] = endpoint.profile();
+            return endpoint;
+        });
+        return reset[0];
+    }
+
+    private LatencyProperties.Profile configured(String name) {
+        LatencyProperties.Profile profile = properties.getEndpoints().get(name);
+        return profile != null ? profile.copy() : new LatencyProperties.Profile();
+    }
+
+    public static final class Endpoint {
+
+        private final Duration defaultDuration;
+        private final Map<LatencyMode, Timer> timers = new EnumMap<>(LatencyMode.class);
+        private volatile Sampler sampler;
+
+        private Endpoint(String name, Duration defaultDuration, LatencyProperties.Profile profile, MeterRegistry registry) {
+            this.defaultDuration = defaultDuration;
+            for (LatencyMode mode : LatencyMode.values()) {
+                timers.put(mode, Timer.builder("latency.injected")
+                        .tag("endpoint", name)
+                        .tag("mode", mode.name())
+                        .description("Simulated work injected into the endpoint")
+                        .register(registry));
+            }
+            apply(profile);
+        }
+
+        private void apply(LatencyProperties.Profile profile) {
+            LatencyProperties.Profile effective = profile.copy();
+            if (effective.getDuration() == null) {
+                effective.setDuration(defaultDuration);
+            }
+            this.sampler = new Sampler(effective);
+        }
+
+        LatencyProperties.Profile profile() {
+            return sampler.profile.copy();
+        }
+
+        /**
+         * Spends one sampled latency on the calling thread.
+         */
+        public void inject() {
+            Sampler current = sampler;
+            long nanos = current.next();
+            if (nanos <= 0) {
+                return;
+            }
+            if (current.mode == LatencyMode.SLEEP) {
+                sleep(nanos);
+            } else {
+                burn(nanos);
+            }
+            timers.get(current.mode).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Spends one sampled latency without blocking the caller: a sleep becomes a timer that completes on
+         * {@code executor}, a CPU burn runs on it.
+         */
+        public CompletableFuture<Void> injectAsync(Executor executor) {
+            Sampler current = sampler;
+            long nanos = current.next();
+            if (nanos <= 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Timer timer = timers.get(current.mode);
+            if (current.mode == LatencyMode.SLEEP) {
+                Executor delayed = CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS, executor);
+                return CompletableFuture.runAsync(() -> timer.record(nanos, TimeUnit.NANOSECONDS), delayed);
+            }
+            return CompletableFuture.runAsync(() -> {
+                burn(nanos);
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }, executor);
+        }
+
+        long nextNanos() {
+            return sampler.next();
+        }
+    }
+
+    private static final class Sampler {
+
+        private final LatencyProperties.Profile profile;
+        private final LatencyMode mode;
+        private final long durationNanos;
+        private final long minNanos;
+        private final long maxNanos;
+        private final long stddevNanos;
+        private final long capNanos;
+
+        private Sampler(LatencyProperties.Profile profile) {
+            this.profile = profile;
+            this.mode = profile.getMode();
+            this.durationNanos = profile.getDuration().toNanos();
+            this.minNanos = profile.getMin() != null ? profile.getMin().toNanos() : 0;
+            this.maxNanos = profile.getMax() != null ? profile.getMax().toNanos() : 2 * durationNanos;
+            this.stddevNanos = profile.getStddev() != null ? profile.getStddev().toNanos() : durationNanos / 4;
+            this.capNanos = profile.getCap() != null ? profile.getCap().toNanos() : Long.MAX_VALUE;
+        }
+
+        long next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double nanos = switch (profile.getDistribution()) {
+                case FIXED -> durationNanos;
+                case UNIFORM -> maxNanos > minNanos ? random.nextDouble(minNanos, maxNanos) : minNanos;
+                case NORMAL -> durationNanos + stddevNanos * random.nextGaussian();
+                case LOG_NORMAL -> durationNanos * Math.exp(profile.getSigma() * random.nextGaussian());
+                // inverse transform, 1 - nextDouble() is in (0, 1]
+                case PARETO -> durationNanos / Math.pow(1 - random.nextDouble(), 1 / profile.getAlpha());
+            };
+            return Math.min(capNanos, Math.max(0, Math.round(nanos)));
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    // keeps the burn loop from being optimised away
+    private static volatile long sink;
+
+    private static void burn(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long x = sink;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 1_000; i++) {
+                x = x * 6364136223846793005L + 1442695040888963407L;
+            }
+        }
+        sink = x;
+    }
+}
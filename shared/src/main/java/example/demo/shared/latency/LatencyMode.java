@@ -0,0 +1,11 @@
+package example.demo.shared.latency;
+
+/**
+ * How the injected latency is spent.
+ */
+public enum LatencyMode {
+    /** the thread sleeps, like waiting on I/O; a virtual thread unmounts from its carrier */
+    SLEEP,
+    /** the thread spins on the CPU, like compute-bound work; a virtual thread keeps its carrier busy */
+    CPU_BURN
+}
@@ -0,0 +1,54 @@
+package example.demo.shared.latency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simulated work per endpoint, see {@link LatencyInjector}. Endpoints without an entry, or without a
+ * {@code duration}, keep the fixed sleep their call site asks for.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "latency")
+public class LatencyProperties {
+
+    // keyed by endpoint name, e.g. latency.endpoints.calculate.duration=10ms
+    private Map<String, Profile> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Profile {
+        private Distribution distribution = Distribution.FIXED;
+        private LatencyMode mode = LatencyMode.SLEEP;
+        private Duration duration;
+        // UNIFORM bounds
+        private Duration min;
+        private Duration max;
+        // NORMAL spread
+        private Duration stddev;
+        // LOG_NORMAL spread of log(latency)
+        private double sigma = 0.5;
+        // PARETO tail shape, the mean is duration * alpha / (alpha - 1)
+        private double alpha = 2.0;
+        // no single injection is longer than this
+        private Duration cap = Duration.ofSeconds(10);
+
+        Profile copy() {
+            Profile copy = new Profile();
+            copy.distribution = distribution;
+            copy.mode = mode;
+            copy.duration = duration;
+            copy.min = min;
+            copy.max = max;
+            copy.stddev = stddev;
+            copy.sigma = sigma;
+            copy.alpha = alpha;
+            copy.cap = cap;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package example.demo.shared.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to measured latency, in the style of the gradient algorithm from Netflix's
+ * concurrency-limits library.
+ * <p>
+ * Latency samples are averaged over a {@code sampleWindow} and compared with the no-load latency: the minimum latency
+ * seen over the last one to two {@code baselineWindow}s. Their ratio, the gradient, tells whether requests are
+ * queueing: while the average stays within {@code tolerance} of the baseline the limit grows by about
+ * {@code sqrt(limit)} per window, and as queueing inflates latency it shrinks proportionally. Updating once per window
+ * rather than per sample keeps the limit from swinging faster than latency can react to it, and the baseline window
+ * lets the baseline follow the service if it gets slower for good. Calls that time out or are shed downstream back
+ * the limit off multiplicatively. Requests beyond the limit are rejected immediately instead of waiting, which keeps
+ * latency bounded under overload.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final ConcurrencyLimitProperties properties;
+    private final long sampleWindowNanos;
+    private final long baselineWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int limit;
+    // guarded by lock
+    private double estimatedLimit;
+    // samples since the limit was last updated
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private long windowStartNanos = System.nanoTime();
+    // minimum latency in the current and the previous baseline window
+    private long currentMinRttNanos = Long.MAX_VALUE;
+    private long previousMinRttNanos = Long.MAX_VALUE;
+    private long baselineStartNanos = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.sampleWindowNanos = properties.getSampleWindow().toNanos();
+        this.baselineWindowNanos = properties.getBaselineWindow().toNanos();
+        this.limit = properties.getInitialLimit();
+        this.estimatedLimit = limit;
+
+        Tags tags = Tags.of("limiter", name);
+        registry.gauge("concurrency.limit", tags, this, limiter -> limiter.limit);
+        registry.gauge("concurrency.inflight", tags, inFlight);
+        this.rejections = Counter.builder("concurrency.rejections")
+                .tags(tags)
+                .description("Requests rejected because the concurrency limit was reached")
+                .register(registry);
+    }
+
+    /**
+     * @return a permit that must be released exactly once, or {@code null} if the limit is reached
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejections.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    void onSample(long rttNanos, int inFlightAtStart) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (now - baselineStartNanos > baselineWindowNanos) {
+                previousMinRttNanos = currentMinRttNanos;
+                currentMinRttNanos = Long.MAX_VALUE;
+                baselineStartNanos = now;
+            }
+            currentMinRttNanos = Math.min(currentMinRttNanos, rttNanos);
+
+            windowRttNanos += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+            if (windowSamples < MIN_WINDOW_SAMPLES || now - windowStartNanos < sampleWindowNanos) {
+                return;
+            }
+
+            double averageRttNanos = (double) windowRttNanos / windowSamples;
+            long baselineRttNanos = Math.min(currentMinRttNanos, previousMinRttNanos);
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * baselineRttNanos / averageRttNanos));
+            double queueSize = Math.sqrt(estimatedLimit);
+            double newLimit = estimatedLimit * gradient + queueSize;
+            if (windowMaxInFlight < estimatedLimit / 2) {
+                // too little load to tell whether a higher limit would queue, so only allow it to shrink
+                newLimit = Math.min(newLimit, estimatedLimit);
+            }
+            update(estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing());
+
+            windowRttNanos = 0;
+            windowSamples = 0;
+            windowMaxInFlight = 0;
+            windowStartNanos = now;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onDropped() {
+        lock.lock();
+        try {
+            update(estimatedLimit * properties.getBackoffRatio());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double newLimit) {
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * One admitted request. Release it with the outcome that tells the limiter the most about capacity.
+     */
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** the request completed, its latency is a valid sample */
+        public void success() {
+            if (release()) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+
+        /** the request timed out or was rejected downstream, a sign of overload */
+        public void dropped() {
+            if (release()) {
+                onDropped();
+            }
+        }
+
+        /** the request ended without telling anything about capacity, e.g. it was cancelled by the client */
+        public void ignore() {
+            release();
+        }
+
+        private boolean release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
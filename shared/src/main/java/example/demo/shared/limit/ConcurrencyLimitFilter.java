@@ -0,0 +1,47 @@
+package example.demo.shared.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet counterpart of {@link ConcurrencyLimitingServerInterceptor}: requests beyond the limit get
+ * {@code 429 Too Many Requests} straight away.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Concurrency limit of " + limiter.getLimit() + " reached");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } catch (Throwable e) {
+            // an Error too: a permit that is never released lowers the limit for good
+            permit.ignore();
+            throw e;
+        }
+        if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            permit.dropped();
+        } else {
+            permit.success();
+        }
+    }
+}
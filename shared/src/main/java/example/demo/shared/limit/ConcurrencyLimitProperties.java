@@ -0,0 +1,28 @@
+package example.demo.shared.limit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 1000;
+    // how far the average latency may exceed the no-load latency before the limit shrinks
+    private double tolerance = 1.5;
+    // weight of each new limit estimate
+    private double smoothing = 0.2;
+    // the limit is updated at most once per window, from the average latency in it
+    private Duration sampleWindow = Duration.ofMillis(100);
+    // the no-load latency is the minimum over the last one to two windows
+    private Duration baselineWindow = Duration.ofSeconds(10);
+    // multiplicative decrease when a call times out or is shed downstream
+    private double backoffRatio = 0.9;
+}
@@ -0,0 +1,85 @@
+package example.demo.shared.limit;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sheds unary calls beyond an {@link AdaptiveConcurrencyLimiter}'s limit with {@code RESOURCE_EXHAUSTED}. Streaming
+ * calls are passed through: they hold no single unit of work whose latency could be measured.
+ * <p>
+ * Register one per service, e.g. {@code @GrpcService(interceptorNames = "evaluatorConcurrencyLimiter")}.
+ */
+public class ConcurrencyLimitingServerInterceptor implements ServerInterceptor {
+
+    // null when concurrency-limit.enabled is false
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitingServerInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * @return a limiting interceptor, or a pass-through one when limiting is disabled
+     */
+    public static ConcurrencyLimitingServerInterceptor create(String name, ConcurrencyLimitProperties properties,
+                                                              MeterRegistry registry) {
+        return new ConcurrencyLimitingServerInterceptor(
+                properties.isEnabled() ? new AdaptiveConcurrencyLimiter(name, properties, registry) : null);
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (limiter == null || call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY) {
+            return next.startCall(call, headers);
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit of " + limiter.getLimit() + " reached"),
+                    new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        ServerCall<ReqT, RespT> limitedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                switch (status.getCode()) {
+                    case DEADLINE_EXCEEDED, UNAVAILABLE, RESOURCE_EXHAUSTED -> permit.dropped();
+                    case CANCELLED -> permit.ignore();
+                    // OK, and business errors such as INVALID_ARGUMENT for a division by zero
+                    default -> permit.success();
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        final ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(limitedCall, headers);
+        } catch (Throwable e) {
+            // an Error too: a permit that is never released lowers the limit for good
+            permit.ignore();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onCancel() {
+                permit.ignore();
+                super.onCancel();
+            }
+        };
+    }
+}
@@ -0,0 +1,222 @@
+package example.demo.shared.logging;
+
+import example.demo.shared.config.MDCThreadLocalAccessor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Logging for lines written once or more per request, which at load cost more in formatting, serialization and
+ * shipping than they are worth.
+ * <p>
+ * Each call site asks for its {@link Site} once, by name, and logs through it with {@link Supplier} arguments. A
+ * line is first sampled, then held to a per-site rate; a dropped line never calls its suppliers, so the JSON or
+ * string it would have printed is not built at all. Requests of a trace being debugged ({@link #debug}) log every
+ * line. What happened to each line is counted as {@code logging.hot.path}, tagged by site and outcome.
+ */
+@Slf4j
+@Component
+public class HotPathLog {
+
+    private final HotPathLogProperties properties;
+    private final MeterRegistry registry;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    // trace id -> System.nanoTime() after which it is no longer debugged
+    private final Map<String, Long> debugTraceIds = new ConcurrentHashMap<>();
+
+    public HotPathLog(HotPathLogProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        properties.getDebugTraceIds().forEach(traceId -> debugTraceIds.put(traceId, Long.MAX_VALUE));
+    }
+
+    public Site site(Logger logger, String name) {
+        return sites.computeIfAbsent(name, key -> new Site(this, logger, key, rule(key), registry));
+    }
+
+    /**
+     * Logs every line of the trace's requests for the next {@code debug-ttl}.
+     */
+    public void debug(String traceId) {
+        debugTraceIds.put(traceId, System.nanoTime() + properties.getDebugTtl().toNanos());
+        log.info("Debugging trace {} for {}", traceId, properties.getDebugTtl());
+    }
+
+    public boolean undebug(String traceId) {
+        return debugTraceIds.remove(traceId) != null;
+    }
+
+    /**
+     * The trace ids being debugged, with the time left for each.
+     */
+    public Map<String, Duration> debugTraceIds() {
+        long now = System.nanoTime();
+        Map<String, Duration> traceIds = new TreeMap<>();
+        debugTraceIds.forEach((traceId, until) -> {
+            if (until - now > 0) {
+                traceIds.put(traceId, until == Long.MAX_VALUE ? null : Duration.ofNanos(until - now));
+            }
+        });
+        return Collections.unmodifiableMap(traceIds);
+    }
+
+    public Map<String, Rule> rules() {
+        Map<String, Rule> rules = new TreeMap<>();
+        sites.forEach((name, site) -> rules.put(name, site.rule));
+        return Collections.unmodifiableMap(rules);
+    }
+
+    private boolean debugging() {
+        if (debugTraceIds.isEmpty()) {
+            return false;
+        }
+        String traceId = MDC.get(MDCThreadLocalAccessor.KEY);
+        if (traceId == null) {
+            return false;
+        }
+        Long until = debugTraceIds.get(traceId);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        debugTraceIds.remove(traceId, until);
+        return false;
+    }
+
+    private Rule rule(String name) {
+        HotPathLogProperties.Site site = properties.getSites().get(name);
+        double sampleRate = site != null && site.getSampleRate() != null
+                ? site.getSampleRate() : properties.getSampleRate();
+        double ratePerSecond = site != null && site.getRatePerSecond() != null
+                ? site.getRatePerSecond() : properties.getRatePerSecond();
+        return new Rule(properties.isEnabled(), sampleRate, ratePerSecond);
+    }
+
+    public record Rule(boolean enabled, double sampleRate, double ratePerSecond) {
+    }
+
+    public static final class Site {
+
+        private final HotPathLog owner;
+        private final Logger logger;
+        private final Rule rule;
+        private final RateLimit rateLimit;
+        private final Counter logged;
+        private final Counter sampled;
+        private final Counter limited;
+        private final Counter debugged;
+
+        private Site(HotPathLog owner, Logger logger, String name, Rule rule, MeterRegistry registry) {
+            this.owner = owner;
+            this.logger = logger;
+            this.rule = rule;
+            this.rateLimit = rule.ratePerSecond() > 0 ? new RateLimit(rule.ratePerSecond()) : null;
+            this.logged = counter(registry, name, "logged");
+            this.sampled = counter(registry, name, "sampled");
+            this.limited = counter(registry, name, "limited");
+            this.debugged = counter(registry, name, "debugged");
+        }
+
+        private static Counter counter(MeterRegistry registry, String name, String outcome) {
+            return Counter.builder("logging.hot.path")
+                    .tag("site", name)
+                    .tag("outcome", outcome)
+                    .description("Hot path log lines by what became of them")
+                    .register(registry);
+        }
+
+        /**
+         * Whether the next line gets logged; for call sites that have to do more than pass arguments.
+         */
+        public boolean isLoggable() {
+            if (!logger.isInfoEnabled()) {
+                return false;
+            }
+            if (owner.debugging()) {
+                debugged.increment();
+                return true;
+            }
+            if (rule.enabled()) {
+                if (rule.sampleRate() < 1 && ThreadLocalRandom.current().nextDouble() >= rule.sampleRate()) {
+                    sampled.increment();
+                    return false;
+                }
+                if (rateLimit != null && !rateLimit.tryAcquire()) {
+                    limited.increment();
+                    return false;
+                }
+            }
+            logged.increment();
+            return true;
+        }
+
+        public void info(String message) {
+            if (isLoggable()) {
+                logger.info(message);
+            }
+        }
+
+        public void info(String format, Supplier<?> arg) {
+            if (isLoggable()) {
+                logger.info(format, arg.get());
+            }
+        }
+
+        public void info(String format, Supplier<?> arg1, Supplier<?> arg2) {
+            if (isLoggable()) {
+                logger.info(format, arg1.get(), arg2.get());
+            }
+        }
+
+        public void info(String format, Supplier<?> arg1, Supplier<?> arg2, Supplier<?> arg3) {
+            if (isLoggable()) {
+                logger.info(format, arg1.get(), arg2.get(), arg3.get());
+            }
+        }
+    }
+
+    /**
+     * Generic cell rate algorithm: each line pushes a theoretical arrival time one interval further, and a line that
+     * would push it more than a second ahead of now is dropped, so up to one second's worth can come in a burst.
+     */
+    static final class RateLimit {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        RateLimit(double perSecond) {
+            this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / perSecond));
+            this.burstNanos = Math.max(intervalNanos, TimeUnit.SECONDS.toNanos(1));
+        }
+
+        boolean tryAcquire() {
+            long now = System.nanoTime();
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long next = Math.max(arrival - now, 0) + now + intervalNanos;
+                if (next - now > burstNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package example.demo.shared.logging;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code /actuator/hotpathlog}: shows the rule of each call site and which traces are being debugged, and turns full
+ * logging on for a trace, e.g.
+ * <pre>
+ * curl -X POST localhost:8191/actuator/hotpathlog/4bf92f3577b34da6a3ce929d0e0e4736
+ * </pre>
+ * DELETE stops debugging it before its time runs out.
+ */
+@Component
+@Endpoint(id = "hotpathlog")
+public class HotPathLogEndpoint {
+
+    private final HotPathLog hotPathLog;
+
+    public HotPathLogEndpoint(HotPathLog hotPathLog) {
+        this.hotPathLog = hotPathLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of("sites", hotPathLog.rules(), "debugTraceIds", hotPathLog.debugTraceIds());
+    }
+
+    @WriteOperation
+    public Map<String, Duration> debug(@Selector String traceId) {
+        hotPathLog.debug(traceId);
+        return hotPathLog.debugTraceIds();
+    }
+
+    @DeleteOperation
+    public Map<String, Duration> undebug(@Selector String traceId) {
+        hotPathLog.undebug(traceId);
+        return hotPathLog.debugTraceIds();
+    }
+}
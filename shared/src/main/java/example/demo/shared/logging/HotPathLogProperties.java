@@ -0,0 +1,39 @@
+package example.demo.shared.logging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How much of the per-request logging gets through, see {@link HotPathLog}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hot-path-log")
+public class HotPathLogProperties {
+
+    // false logs every line, as plain logger calls would
+    private boolean enabled = true;
+    // share of lines kept before the rate limit, 1.0 keeps all of them
+    private double sampleRate = 0.1;
+    // at most this many lines per second from one call site, 0 for no limit
+    private double ratePerSecond = 10;
+    // per call site, keyed by site name, e.g. hot-path-log.sites.calculate.rate-per-second=1
+    private Map<String, Site> sites = new LinkedHashMap<>();
+    // requests of these traces log every line
+    private Set<String> debugTraceIds = new LinkedHashSet<>();
+    // a trace id added at runtime stops being debugged after this long
+    private Duration debugTtl = Duration.ofMinutes(10);
+
+    @Data
+    public static class Site {
+        private Double sampleRate;
+        private Double ratePerSecond;
+    }
+}
@@ -0,0 +1,63 @@
+package example.demo.shared.tracing;
+
+import brave.handler.SpanHandler;
+import brave.sampler.RateLimitingSampler;
+import brave.sampler.Sampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zipkin2.reporter.brave.AsyncZipkinSpanHandler;
+
+/**
+ * Replaces the fixed sampling probability with two decisions:
+ * <ul>
+ *     <li>head: a trace that starts here is sampled at up to {@code traces-per-second}. The decision travels
+ *     downstream in the trace context, and every service honours it, so these traces are complete.</li>
+ *     <li>tail: spans of the other traces are still recorded, but only kept in memory until their request has
+ *     finished here; they are reported if it failed or was slow ({@link TailSamplingSpanHandler}).</li>
+ * </ul>
+ * Decisions are counted as {@code tracing.sampling.decisions}, tagged by stage and decision.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "tracing.adaptive-sampling.enabled", havingValue = "true")
+public class AdaptiveSamplingConfig {
+
+    // Spring Boot's own probability sampler backs off when this bean exists
+    @Bean
+    public Sampler adaptiveSampler(AdaptiveSamplingProperties properties, MeterRegistry registry) {
+        Sampler baseline = RateLimitingSampler.create(properties.getTracesPerSecond());
+        Counter sampled = decisions(registry, "head", "sampled");
+        Counter notSampled = decisions(registry, "head", "not_sampled");
+        log.info("Sampling up to {} new traces per second, and slow or failed requests above {}",
+                properties.getTracesPerSecond(), properties.getLatencyThreshold());
+        return new Sampler() {
+            @Override
+            public boolean isSampled(long traceId) {
+                boolean decision = baseline.isSampled(traceId);
+                (decision ? sampled : notSampled).increment();
+                return decision;
+            }
+        };
+    }
+
+    @Bean
+    public TailSamplingSpanHandler tailSamplingSpanHandler(AdaptiveSamplingProperties properties,
+                                                           ObjectProvider<AsyncZipkinSpanHandler> zipkin,
+                                                           MeterRegistry registry) {
+        SpanHandler reporter = zipkin.getIfAvailable();
+        return new TailSamplingSpanHandler(properties, reporter != null ? reporter : SpanHandler.NOOP, registry);
+    }
+
+    static Counter decisions(MeterRegistry registry, String stage, String decision) {
+        return Counter.builder("tracing.sampling.decisions")
+                .tag("stage", stage)
+                .tag("decision", decision)
+                .description("Trace sampling decisions")
+                .register(registry);
+    }
+}
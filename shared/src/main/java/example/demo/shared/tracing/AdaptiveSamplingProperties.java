@@ -0,0 +1,28 @@
+package example.demo.shared.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Head and tail sampling of traces, see {@link AdaptiveSamplingConfig}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "tracing.adaptive-sampling")
+public class AdaptiveSamplingProperties {
+
+    // false leaves sampling to management.tracing.sampling.probability
+    private boolean enabled;
+    // new traces started here that are sampled up front, and so complete in every service
+    private int tracesPerSecond = 10;
+    // an unsampled request that takes at least this long here is reported anyway
+    private Duration latencyThreshold = Duration.ofMillis(500);
+    // bounds on the spans held back while their request is still running
+    private int maxBufferedTraces = 10_000;
+    private int maxSpansPerTrace = 256;
+    // spans of a request that never finished are let go after this long
+    private Duration bufferTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,178 @@
+package example.demo.shared.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds back the spans of traces the head sampler passed over, per local root, i.e. per request this service
+ * handled, and decides when the local root finishes: if any of them failed, or one took at least
+ * {@code latency-threshold}, they are all handed to {@code reporter} as if sampled, otherwise they are dropped.
+ * <p>
+ * The decision is local. A slow request keeps its spans here and in every service whose own part was slow or
+ * failed, while the parts of faster services are dropped; traces that need to be complete come from the head
+ * sampled baseline.
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    private final SpanHandler reporter;
+    private final long thresholdMicros;
+    private final int maxBufferedTraces;
+    private final int maxSpansPerTrace;
+    private final long timeoutNanos;
+    // local root span id -> the spans ended under it so far
+    private final Map<Long, Buffered> buffered = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    private final Counter error;
+    private final Counter slow;
+    private final Counter dropped;
+    private final Counter reportedSpans;
+    private final Counter overflowSpans;
+    private final Counter expiredSpans;
+
+    public TailSamplingSpanHandler(AdaptiveSamplingProperties properties, SpanHandler reporter, MeterRegistry registry) {
+        this.reporter = reporter;
+        this.thresholdMicros = TimeUnit.NANOSECONDS.toMicros(properties.getLatencyThreshold().toNanos());
+        this.maxBufferedTraces = properties.getMaxBufferedTraces();
+        this.maxSpansPerTrace = properties.getMaxSpansPerTrace();
+        this.timeoutNanos = properties.getBufferTimeout().toNanos();
+
+        this.error = AdaptiveSamplingConfig.decisions(registry, "tail", "error");
+        this.slow = AdaptiveSamplingConfig.decisions(registry, "tail", "slow");
+        this.dropped = AdaptiveSamplingConfig.decisions(registry, "tail", "dropped");
+        this.reportedSpans = spans(registry, "reported");
+        this.overflowSpans = spans(registry, "overflow");
+        this.expiredSpans = spans(registry, "expired");
+        registry.gaugeMapSize("tracing.sampling.buffered", List.of(), buffered);
+    }
+
+    private static Counter spans(MeterRegistry registry, String outcome) {
+        return Counter.builder("tracing.sampling.spans")
+                .tag("outcome", outcome)
+                .description("Spans of traces not sampled up front, by what became of them")
+                .register(registry);
+    }
+
+    /**
+     * Has Brave record the spans of unsampled traces too, for this handler alone.
+     */
+    @Override
+    public boolean alwaysSampleLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED || Boolean.TRUE.equals(context.sampled())) {
+            return true;
+        }
+        sweep();
+        boolean localRoot = context.isLocalRoot();
+        Buffered trace = localRoot ? buffered.remove(context.localRootId()) : buffered.get(context.localRootId());
+        if (trace == null) {
+            if (localRoot) {
+                // nothing under it ended here, e.g. a calculator call
+                trace = new Buffered();
+            } else if (buffered.size() >= maxBufferedTraces) {
+                overflowSpans.increment();
+                return true;
+            } else {
+                trace = buffered.computeIfAbsent(context.localRootId(), key -> new Buffered());
+            }
+        }
+
+        boolean failed = failed(span);
+        boolean tooSlow = span.finishTimestamp() - span.startTimestamp() >= thresholdMicros;
+        if (!trace.add(context, span, failed, tooSlow, maxSpansPerTrace)) {
+            overflowSpans.increment();
+        }
+        if (localRoot) {
+            decide(trace);
+        }
+        return true;
+    }
+
+    private void decide(Buffered trace) {
+        List<Buffered.Ended> spans;
+        boolean failed, tooSlow;
+        synchronized (trace) {
+            spans = List.copyOf(trace.spans);
+            failed = trace.failed;
+            tooSlow = trace.tooSlow;
+        }
+        if (!failed && !tooSlow) {
+            dropped.increment();
+            return;
+        }
+        (failed ? error : slow).increment();
+        for (Buffered.Ended ended : spans) {
+            reporter.end(ended.context().toBuilder().sampled(true).build(), ended.span(), Cause.FINISHED);
+        }
+        reportedSpans.increment(spans.size());
+    }
+
+    /**
+     * Failed by Brave's own error field, an {@code error} tag, or the status Spring and gRPC observations tag.
+     */
+    static boolean failed(MutableSpan span) {
+        if (span.error() != null || span.tag("error") != null || "SERVER_ERROR".equals(span.tag("outcome"))) {
+            return true;
+        }
+        String grpcStatus = span.tag("grpc.status_code");
+        return grpcStatus != null && !"OK".equals(grpcStatus);
+    }
+
+    /**
+     * Lets go of local roots that never finished, at most every half timeout.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < timeoutNanos / 2 || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        buffered.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().created < timeoutNanos) {
+                return false;
+            }
+            expiredSpans.increment(entry.getValue().size());
+            return true;
+        });
+    }
+
+    private static final class Buffered {
+
+        private final long created = System.nanoTime();
+        private final List<Ended> spans = new ArrayList<>();
+        private boolean failed;
+        private boolean tooSlow;
+
+        synchronized boolean add(TraceContext context, MutableSpan span, boolean failed, boolean tooSlow, int max) {
+            this.failed |= failed;
+            this.tooSlow |= tooSlow;
+            // the local root is what the request looked like from here, so it is kept over the others
+            if (spans.size() >= max && !context.isLocalRoot()) {
+                return false;
+            }
+            spans.add(new Ended(context, span));
+            return true;
+        }
+
+        synchronized int size() {
+            return spans.size();
+        }
+
+        private record Ended(TraceContext context, MutableSpan span) {
+        }
+    }
+}
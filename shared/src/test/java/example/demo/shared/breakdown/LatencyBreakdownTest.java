@@ -0,0 +1,50 @@
+package example.demo.shared.breakdown;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LatencyBreakdownTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void stagesAreFormattedInOrder() {
+        LatencyBreakdown breakdown = new LatencyBreakdown();
+        breakdown.time("tokenize", 12 * MS + 345_678);
+        breakdown.time("calculator", 3 * MS);
+        breakdown.time("calculator", 4 * MS);
+        breakdown.count("tokens", 15);
+
+        assertEquals("tokenize;dur=12.35, calculator;dur=7.00;count=2, tokens;count=15", breakdown.toHeaderValue());
+    }
+
+    @Test
+    void downstreamBreakdownsAreAppendedUnderTheirHop() {
+        LatencyBreakdown breakdown = new LatencyBreakdown();
+        breakdown.time("evaluator", 20 * MS);
+        breakdown.time("total", 25 * MS);
+        breakdown.include("evaluator", "total;dur=18.00, tokens;count=3");
+        breakdown.include("evaluator", null);
+
+        assertEquals("evaluator;dur=20.00, total;dur=25.00, evaluator.total;dur=18.00, evaluator.tokens;count=3",
+                breakdown.toHeaderValue());
+    }
+
+    @Test
+    void currentIsScopedToCallWith() {
+        LatencyBreakdown outer = new LatencyBreakdown();
+        LatencyBreakdown inner = new LatencyBreakdown();
+
+        LatencyBreakdown.callWith(outer, () -> {
+            LatencyBreakdown.callWith(inner, () -> assertSame(inner, LatencyBreakdown.current()));
+            assertSame(outer, LatencyBreakdown.current());
+            return null;
+        });
+        assertNull(LatencyBreakdown.current());
+    }
+}
@@ -0,0 +1,56 @@
+package example.demo.shared.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void lookupAfterPut() {
+        OperationCache cache = new OperationCache("test", 64, Duration.ofMinutes(1), registry);
+
+        assertEquals(OperationCache.MISS, cache.lookup(0, 1, 2));
+        cache.put(0, 1, 2, 3);
+        assertEquals(3.0, Double.longBitsToDouble(cache.lookup(0, 1, 2)));
+        // same operands, different operation
+        assertEquals(OperationCache.MISS, cache.lookup(1, 1, 2));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void boundedSize() {
+        OperationCache cache = new OperationCache("test", 16, Duration.ofMinutes(1), registry);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(2, i, i, (double) i * i);
+        }
+        int retained = 0;
+        for (int i = 0; i < 1000; i++) {
+            long bits = cache.lookup(2, i, i);
+            if (bits != OperationCache.MISS) {
+                assertEquals((double) i * i, Double.longBitsToDouble(bits));
+                retained++;
+            }
+        }
+        assertTrue(retained <= 16, "retained " + retained + " entries in a cache of 16");
+        assertEquals(1000.0 - retained, registry.get("operation.cache.evictions").tag("cause", "size").counter().count(), 16);
+    }
+
+    @Test
+    void expiredEntriesMiss() throws InterruptedException {
+        OperationCache cache = new OperationCache("test", 16, Duration.ofMillis(1), registry);
+
+        cache.put(0, 1, 2, 3);
+        Thread.sleep(5);
+        assertEquals(OperationCache.MISS, cache.lookup(0, 1, 2));
+    }
+}
@@ -0,0 +1,69 @@
+package example.demo.shared.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PostfixTapeTest {
+
+    // 4 9 * 6.5 - 3 +
+    private final List<Token> tokens = List.of(new NumberToken(4), new NumberToken(9), new OperatorToken('*'),
+            new NumberToken(6.5), new OperatorToken('-'), new NumberToken(3), new OperatorToken('+'));
+
+    @Test
+    void tokenRoundTrip() {
+        PostfixTape tape = PostfixTape.fromTokens(tokens);
+
+        assertEquals(7, tape.size());
+        assertEquals(4, tape.operandCount());
+        assertEquals(3, tape.operatorCount());
+        assertEquals("4.0 9.0 * 6.5 - 3.0 +", tape.toString());
+        assertEquals(tokens, tape.toTokens());
+    }
+
+    @Test
+    void binaryRoundTrip() {
+        PostfixTape tape = PostfixTape.fromTokens(tokens);
+        byte[] bytes = tape.toBytes();
+
+        assertEquals(1 + 4 + 4 + 7 + 8 * 4, bytes.length);
+        assertEquals(tape, PostfixTape.fromBytes(bytes));
+    }
+
+    @Test
+    void protoRoundTrip() {
+        PostfixTape tape = PostfixTape.fromTokens(tokens);
+        assertEquals(tape, PostfixTape.fromProto(tape.toProto()));
+    }
+
+    @Test
+    void refsRoundTrip() {
+        // 3 4 * @2 +  ==  3*4 + 3*4
+        List<Token> dag = List.of(new NumberToken(3), new NumberToken(4), new OperatorToken('*'),
+                new RefToken(2), new OperatorToken('+'));
+        PostfixTape tape = PostfixTape.fromTokens(dag);
+
+        assertEquals(2, tape.operatorCount());
+        assertEquals(2, tape.ref(2));
+        assertEquals("3.0 4.0 * @2 +", tape.toString());
+        assertEquals(dag, tape.toTokens());
+        assertEquals(tape, PostfixTape.fromBytes(tape.toBytes()));
+        assertEquals(tape, PostfixTape.fromProto(tape.toProto()));
+    }
+
+    @Test
+    void rejectsForwardRefs() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PostfixTape.of(new byte[]{PostfixTape.PUSH, PostfixTape.REF, '+'}, new double[]{1, 1}));
+    }
+
+    @Test
+    void rejectsMismatchedOperands() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PostfixTape.of(new byte[]{PostfixTape.PUSH, PostfixTape.PUSH, '+'}, new double[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> PostfixTape.fromBytes(new byte[]{1, 2}));
+    }
+}
@@ -0,0 +1,145 @@
+package example.demo.shared.latency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyInjectorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int SAMPLES = 20_000;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LatencyProperties properties = new LatencyProperties();
+    private final LatencyInjector injector = new LatencyInjector(properties, registry);
+
+    private LatencyInjector.Endpoint endpoint(LatencyProperties.Profile profile) {
+        properties.getEndpoints().put("test", profile);
+        return injector.endpoint("test", Duration.ofMillis(10));
+    }
+
+    private static LatencyProperties.Profile profile(Distribution distribution) {
+        LatencyProperties.Profile profile = new LatencyProperties.Profile();
+        profile.setDistribution(distribution);
+        return profile;
+    }
+
+    private static long[] samples(LatencyInjector.Endpoint endpoint) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = endpoint.nextNanos();
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double mean(long[] samples) {
+        return Arrays.stream(samples).average().orElseThrow();
+    }
+
+    @Test
+    void unconfiguredEndpointKeepsItsDefault() {
+        LatencyInjector.Endpoint endpoint = injector.endpoint("other", Duration.ofMillis(10));
+
+        assertEquals(10 * MS, endpoint.nextNanos());
+        assertEquals(Duration.ofMillis(10), injector.profile("other").getDuration());
+    }
+
+    @Test
+    void uniformStaysWithinBounds() {
+        LatencyProperties.Profile profile = profile(Distribution.UNIFORM);
+        profile.setMin(Duration.ofMillis(5));
+        profile.setMax(Duration.ofMillis(15));
+        long[] samples = samples(endpoint(profile));
+
+        assertTrue(samples[0] >= 5 * MS);
+        assertTrue(samples[SAMPLES - 1] < 15 * MS);
+        assertEquals(10 * MS, mean(samples), 0.2 * MS);
+    }
+
+    @Test
+    void normalIsCentredOnDuration() {
+        long[] samples = samples(endpoint(profile(Distribution.NORMAL)));
+
+        assertTrue(samples[0] >= 0);
+        assertEquals(10 * MS, mean(samples), 0.2 * MS);
+    }
+
+    @Test
+    void logNormalHasDurationAsMedian() {
+        long[] samples = samples(endpoint(profile(Distribution.LOG_NORMAL)));
+
+        assertEquals(10 * MS, samples[SAMPLES / 2], 0.5 * MS);
+        assertTrue(mean(samples) > samples[SAMPLES / 2]);
+    }
+
+    @Test
+    void paretoHasDurationAsMinimumAndAHeavyTail() {
+        LatencyProperties.Profile profile = profile(Distribution.PARETO);
+        profile.setAlpha(2.0);
+        profile.setCap(Duration.ofMillis(500));
+        long[] samples = samples(endpoint(profile));
+
+        assertTrue(samples[0] >= 10 * MS);
+        assertTrue(samples[SAMPLES - 1] <= 500 * MS);
+        // P(X > x) = (duration / x)^alpha, so p99 = 10 * sqrt(100) ms
+        assertEquals(100 * MS, samples[(int) (SAMPLES * 0.99)], 15 * MS);
+    }
+
+    @Test
+    void updateAndResetAtRuntime() {
+        LatencyInjector.Endpoint endpoint = endpoint(profile(Distribution.FIXED));
+
+        injector.update("test", profile -> profile.setDuration(Duration.ofMillis(3)));
+        assertEquals(3 * MS, endpoint.nextNanos());
+        // the configured profile itself is left alone
+        assertNull(properties.getEndpoints().get("test").getDuration());
+
+        injector.reset("test");
+        assertEquals(10 * MS, endpoint.nextNanos());
+        assertNull(injector.update("unknown", profile -> profile.setDuration(Duration.ZERO)));
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLost() {
+        LatencyInjector.Endpoint endpoint = endpoint(profile(Distribution.FIXED));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 800; i++) {
+                executor.execute(() -> injector.update("test",
+                        profile -> profile.setDuration(profile.getDuration().plusMillis(1))));
+            }
+        }
+
+        assertEquals(810 * MS, endpoint.nextNanos());
+    }
+
+    @Test
+    void injectionIsTimedPerMode() {
+        LatencyProperties.Profile profile = profile(Distribution.FIXED);
+        profile.setDuration(Duration.ofMillis(2));
+        profile.setMode(LatencyMode.CPU_BURN);
+        LatencyInjector.Endpoint endpoint = endpoint(profile);
+
+        long start = System.nanoTime();
+        endpoint.inject();
+        assertTrue(System.nanoTime() - start >= 2 * MS);
+
+        injector.update("test", changed -> changed.setMode(LatencyMode.SLEEP));
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            endpoint.injectAsync(executor).join();
+        }
+
+        assertEquals(1, registry.get("latency.injected").tag("endpoint", "test").tag("mode", "CPU_BURN").timer().count());
+        assertEquals(1, registry.get("latency.injected").tag("endpoint", "test").tag("mode", "SLEEP").timer().count());
+    }
+}
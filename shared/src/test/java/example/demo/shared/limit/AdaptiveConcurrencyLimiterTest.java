@@ -0,0 +1,99 @@
+package example.demo.shared.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static ConcurrencyLimitProperties properties(int initialLimit) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(1);
+        properties.setSampleWindow(Duration.ZERO);
+        return properties;
+    }
+
+    @Test
+    void rejectsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(2), registry);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        assertEquals(1.0, registry.get("concurrency.rejections").tag("limiter", "test").counter().count());
+
+        first.ignore();
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void permitIsReleasedOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(2), registry);
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        permit.ignore();
+        permit.ignore();
+        permit.dropped();
+
+        assertEquals(0, limiter.getInFlight());
+        // the late dropped() is not counted as overload
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffWhenDropped() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(20), registry);
+
+        limiter.tryAcquire().dropped();
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void growsWhileLatencyIsFlat() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(10), registry);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(1_000_000, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void shrinksWhenRequestsQueue() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(100), registry);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample(1_000_000, 100);
+        }
+        int limit = limiter.getLimit();
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(10_000_000, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() < limit / 2, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWithoutLoad() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties(10), registry);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(1_000_000, 1);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+}
@@ -0,0 +1,112 @@
+package example.demo.shared.logging;
+
+import example.demo.shared.config.MDCThreadLocalAccessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotPathLogTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotPathLogTest.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HotPathLogProperties properties = new HotPathLogProperties();
+    private final AtomicInteger built = new AtomicInteger();
+    private final Supplier<String> argument = () -> "line " + built.incrementAndGet();
+
+    @AfterEach
+    void clearTraceId() {
+        MDC.remove(MDCThreadLocalAccessor.KEY);
+    }
+
+    private HotPathLog.Site site(String name) {
+        return new HotPathLog(properties, registry).site(log, name);
+    }
+
+    private double count(String site, String outcome) {
+        return registry.get("logging.hot.path").tag("site", site).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void droppedLinesAreNeverBuilt() {
+        properties.setSampleRate(0);
+        HotPathLog.Site site = site("test");
+
+        for (int i = 0; i < 100; i++) {
+            site.info("{}", argument);
+        }
+
+        assertEquals(0, built.get());
+        assertEquals(100, count("test", "sampled"));
+        assertEquals(0, count("test", "logged"));
+    }
+
+    @Test
+    void eachSiteIsHeldToItsRate() {
+        properties.setSampleRate(1.0);
+        properties.setRatePerSecond(5);
+        HotPathLogProperties.Site quiet = new HotPathLogProperties.Site();
+        quiet.setRatePerSecond(1.0);
+        properties.getSites().put("quiet", quiet);
+        HotPathLog hotPathLog = new HotPathLog(properties, registry);
+        HotPathLog.Site busy = hotPathLog.site(log, "busy");
+        HotPathLog.Site quietSite = hotPathLog.site(log, "quiet");
+
+        for (int i = 0; i < 100; i++) {
+            busy.info("{}", argument);
+            quietSite.info("{}", argument);
+        }
+
+        // a second's worth may come at once, and one more if the loop took longer than an interval
+        assertTrue(count("busy", "logged") >= 5 && count("busy", "logged") <= 6, "busy " + count("busy", "logged"));
+        assertTrue(count("quiet", "logged") >= 1 && count("quiet", "logged") <= 2, "quiet " + count("quiet", "logged"));
+        assertEquals(200, count("busy", "logged") + count("busy", "limited")
+                + count("quiet", "logged") + count("quiet", "limited"));
+        assertEquals(count("busy", "logged") + count("quiet", "logged"), built.get());
+    }
+
+    @Test
+    void debuggedTracesLogEveryLine() {
+        properties.setSampleRate(0);
+        HotPathLog hotPathLog = new HotPathLog(properties, registry);
+        HotPathLog.Site site = hotPathLog.site(log, "test");
+
+        hotPathLog.debug("4bf92f3577b34da6a3ce929d0e0e4736");
+        MDC.put(MDCThreadLocalAccessor.KEY, "4bf92f3577b34da6a3ce929d0e0e4736");
+        site.info("{}", argument);
+        MDC.put(MDCThreadLocalAccessor.KEY, "00f067aa0ba902b7");
+        site.info("{}", argument);
+
+        assertEquals(1, built.get());
+        assertEquals(1, count("test", "debugged"));
+        assertEquals(1, count("test", "sampled"));
+
+        hotPathLog.undebug("4bf92f3577b34da6a3ce929d0e0e4736");
+        MDC.put(MDCThreadLocalAccessor.KEY, "4bf92f3577b34da6a3ce929d0e0e4736");
+        site.info("{}", argument);
+        assertEquals(1, built.get());
+    }
+
+    @Test
+    void disabledLogsEverything() {
+        properties.setEnabled(false);
+        properties.setSampleRate(0);
+        HotPathLog.Site site = site("test");
+
+        for (int i = 0; i < 10; i++) {
+            site.info("{}", argument);
+        }
+
+        assertEquals(10, built.get());
+        assertEquals(10, count("test", "logged"));
+    }
+}
@@ -0,0 +1,119 @@
+package example.demo.shared.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailSamplingSpanHandlerTest {
+
+    private static final long START = 1_700_000_000_000_000L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdaptiveSamplingProperties properties = new AdaptiveSamplingProperties();
+    private final List<MutableSpan> reported = new ArrayList<>();
+    private Tracing tracing;
+
+    @AfterEach
+    void close() {
+        tracing.close();
+    }
+
+    private Tracer tracer(Sampler sampler) {
+        properties.setLatencyThreshold(Duration.ofMillis(100));
+        SpanHandler reporter = new SpanHandler() {
+            @Override
+            public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                assertTrue(context.sampled());
+                reported.add(span);
+                return true;
+            }
+        };
+        tracing = Tracing.newBuilder()
+                .sampler(sampler)
+                .addSpanHandler(new TailSamplingSpanHandler(properties, reporter, registry))
+                .build();
+        return tracing.tracer();
+    }
+
+    /**
+     * A request handled here, with {@code calls} downstream calls of 10 µs each.
+     */
+    private static void request(Tracer tracer, int calls, long micros, boolean fail) {
+        Span root = tracer.newTrace().name("request").start(START);
+        for (int i = 0; i < calls; i++) {
+            Span call = tracer.newChild(root.context()).name("call").start(START + i * 10L);
+            if (fail) {
+                call.error(new IllegalStateException("division by zero"));
+            }
+            call.finish(START + i * 10L + 10);
+        }
+        root.finish(START + micros);
+    }
+
+    private double decisions(String decision) {
+        return registry.get("tracing.sampling.decisions").tag("stage", "tail").tag("decision", decision).counter().count();
+    }
+
+    private double spans(String outcome) {
+        return registry.get("tracing.sampling.spans").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void fastRequestsAreDropped() {
+        request(tracer(Sampler.NEVER_SAMPLE), 2, 1_000, false);
+
+        assertEquals(0, reported.size());
+        assertEquals(1, decisions("dropped"));
+        assertEquals(0, registry.get("tracing.sampling.buffered").gauge().value());
+    }
+
+    @Test
+    void failedRequestsAreReportedWhole() {
+        request(tracer(Sampler.NEVER_SAMPLE), 2, 1_000, true);
+
+        assertEquals(3, reported.size());
+        assertEquals("request", reported.get(2).name());
+        assertEquals(1, decisions("error"));
+        assertEquals(3, spans("reported"));
+    }
+
+    @Test
+    void slowRequestsAreReportedWhole() {
+        request(tracer(Sampler.NEVER_SAMPLE), 2, 150_000, false);
+
+        assertEquals(3, reported.size());
+        assertEquals(1, decisions("slow"));
+    }
+
+    @Test
+    void sampledTracesAreLeftToTheReporter() {
+        request(tracer(Sampler.ALWAYS_SAMPLE), 2, 150_000, true);
+
+        assertEquals(0, reported.size());
+        assertEquals(0, decisions("error") + decisions("slow") + decisions("dropped"));
+    }
+
+    @Test
+    void spansPerRequestAreBounded() {
+        properties.setMaxSpansPerTrace(2);
+        request(tracer(Sampler.NEVER_SAMPLE), 3, 1_000, true);
+
+        assertEquals(3, reported.size());
+        assertEquals("request", reported.get(2).name());
+        assertEquals(1, spans("overflow"));
+    }
+}
@@ -0,0 +1,205 @@
+package example.calc.tester;
+
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests start on a fixed schedule, {@code 1 / rate} apart, whether or not the earlier ones have
+ * finished, each on its own virtual thread. A slow target therefore builds up a queue instead of slowing the
+ * generator down, as it would with real users.
+ * <p>
+ * Latency is measured from each request's scheduled start rather than from when it got going, which corrects for
+ * coordinated omission: when the target stalls, the requests that should have been sent meanwhile are still
+ * charged the wait. The schedule catches up with a burst if the scheduling thread falls behind, and how far
+ * behind it was is reported.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0);
+
+    LoadGenerator(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    LoadReport run(LoadTarget target, List<LoadTestRequest.Step> schedule, Callable<?> call) {
+        List<StepRecorder> steps = new ArrayList<>(schedule.size());
+        long start = System.nanoTime();
+        long stepStart = start;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (LoadTestRequest.Step step : schedule) {
+                StepRecorder recorder = new StepRecorder(step, stepStart);
+                steps.add(recorder);
+                log.info("Load step: {} requests/s for {} s", step.rate(), step.durationSeconds());
+
+                long count = Math.round(step.rate() * step.durationSeconds());
+                for (long i = 0; i < count; i++) {
+                    long intendedStart = stepStart + Math.round(i * NANOS_PER_SECOND / step.rate());
+                    awaitUntil(intendedStart);
+                    send(executor, recorder, intendedStart, call);
+                }
+                // the next step starts on schedule too, not when this loop happened to finish
+                stepStart += Math.round(step.durationSeconds() * NANOS_PER_SECOND);
+            }
+            // closing waits for the requests still in flight
+        }
+        return report(target, steps, start);
+    }
+
+    private void awaitUntil(long intendedStart) {
+        long remaining;
+        while ((remaining = intendedStart - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+        maxLagNanos.accumulate(-remaining);
+    }
+
+    private void send(ExecutorService executor, StepRecorder recorder, long intendedStart, Callable<?> call) {
+        recorder.scheduled.increment();
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            recorder.dropped.increment();
+            return;
+        }
+        executor.execute(() -> {
+            long actualStart = System.nanoTime();
+            try {
+                call.call();
+                long end = System.nanoTime();
+                recorder.succeeded(intendedStart, actualStart, end);
+            } catch (Exception e) {
+                recorder.failed(errorType(e), System.nanoTime());
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * The gRPC status code where there is one, otherwise the exception's class.
+     */
+    static String errorType(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StatusRuntimeException statusException) {
+                return statusException.getStatus().getCode().name();
+            }
+        }
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName();
+    }
+
+    private LoadReport report(LoadTarget target, List<StepRecorder> steps, long start) {
+        Histogram responseTime = new Histogram(SIGNIFICANT_DIGITS);
+        Histogram serviceTime = new Histogram(SIGNIFICANT_DIGITS);
+        Map<String, Long> errors = new TreeMap<>();
+        List<LoadReport.StepReport> stepReports = new ArrayList<>(steps.size());
+        long scheduled = 0, succeeded = 0, failed = 0, dropped = 0;
+        long end = start;
+        double plannedSeconds = 0;
+
+        for (StepRecorder step : steps) {
+            LoadReport.StepReport report = step.report();
+            stepReports.add(report);
+            responseTime.add(step.responseTime);
+            serviceTime.add(step.serviceTime);
+            report.errors().forEach((type, count) -> errors.merge(type, count, Long::sum));
+            scheduled += report.scheduled();
+            succeeded += report.succeeded();
+            failed += report.failed();
+            dropped += report.dropped();
+            end = Math.max(end, step.lastCompletion.get());
+            plannedSeconds += step.step.durationSeconds();
+        }
+
+        double elapsedSeconds = (double) (end - start) / NANOS_PER_SECOND;
+        LoadReport report = new LoadReport(target,
+                elapsedSeconds,
+                scheduled,
+                succeeded,
+                failed,
+                dropped,
+                plannedSeconds > 0 ? scheduled / plannedSeconds : 0,
+                elapsedSeconds > 0 ? succeeded / elapsedSeconds : 0,
+                maxLagNanos.get() / 1e6,
+                LoadReport.Latency.of(responseTime),
+                LoadReport.Latency.of(serviceTime),
+                errors,
+                stepReports);
+        log.info("Load test finished: {} scheduled, {} succeeded, {} failed, {} dropped, p99 {} ms",
+                scheduled, succeeded, failed, dropped, report.responseTime().p99());
+        return report;
+    }
+
+    private static final class StepRecorder {
+
+        private final LoadTestRequest.Step step;
+        private final long start;
+        private final Histogram responseTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final Histogram serviceTime = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder scheduled = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LongAccumulator lastCompletion;
+
+        private StepRecorder(LoadTestRequest.Step step, long start) {
+            this.step = step;
+            this.start = start;
+            this.lastCompletion = new LongAccumulator(Math::max, start);
+        }
+
+        void succeeded(long intendedStart, long actualStart, long end) {
+            responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(end - intendedStart));
+            serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(end - actualStart));
+            succeeded.increment();
+            lastCompletion.accumulate(end);
+        }
+
+        void failed(String type, long end) {
+            errors.computeIfAbsent(type, key -> new LongAdder()).increment();
+            lastCompletion.accumulate(end);
+        }
+
+        LoadReport.StepReport report() {
+            Map<String, Long> errorCounts = new TreeMap<>();
+            errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+            long failed = errorCounts.values().stream().mapToLong(Long::longValue).sum();
+            double seconds = (double) (lastCompletion.get() - start) / NANOS_PER_SECOND;
+            return new LoadReport.StepReport(step.rate(),
+                    step.durationSeconds(),
+                    scheduled.sum(),
+                    succeeded.sum(),
+                    failed,
+                    dropped.sum(),
+                    seconds > 0 ? succeeded.sum() / seconds : 0,
+                    LoadReport.Latency.of(responseTime),
+                    LoadReport.Latency.of(serviceTime),
+                    errorCounts);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package example.calc.tester;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a load test. Latencies are in milliseconds, over successful requests only. {@code responseTime} counts
+ * from when a request was due to start, so time spent waiting behind a slow generator or a stalled target is
+ * included; {@code serviceTime} counts from when it actually started, which is what a closed-model tool reports.
+ */
+public record LoadReport(LoadTarget target,
+                         double elapsedSeconds,
+                         long scheduled,
+                         long succeeded,
+                         long failed,
+                         long dropped,
+                         double offeredRate,
+                         double throughput,
+                         double maxScheduleLagMillis,
+                         Latency responseTime,
+                         Latency serviceTime,
+                         Map<String, Long> errors,
+                         List<StepReport> steps) {
+
+    public record StepReport(double rate,
+                             double durationSeconds,
+                             long scheduled,
+                             long succeeded,
+                             long failed,
+                             long dropped,
+                             double throughput,
+                             Latency responseTime,
+                             Latency serviceTime,
+                             Map<String, Long> errors) {
+    }
+
+    public record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+
+        private static final double MICROS_PER_MILLI = 1_000.0;
+
+        // histograms are recorded in microseconds
+        static Latency of(Histogram histogram) {
+            if (histogram.getTotalCount() == 0) {
+                return new Latency(0, 0, 0, 0, 0, 0);
+            }
+            return new Latency(
+                    histogram.getMean() / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                    histogram.getMaxValue() / MICROS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package example.calc.tester;
+
+/**
+ * What each request of a load test does.
+ */
+public enum LoadTarget {
+    /** the {@code GET /test} flow: three generator calls, then one evaluation */
+    FLOW,
+    /** one {@code evaluate} call on the evaluator's gRPC stub, for expressions generated up front */
+    EVALUATE
+}
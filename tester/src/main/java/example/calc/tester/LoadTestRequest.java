@@ -0,0 +1,55 @@
+package example.calc.tester;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /test/load}. Either one constant {@code rate} for {@code durationSeconds}, or {@code steps} run
+ * one after the other, e.g. {@code {"target": "EVALUATE", "steps": [{"rate": 50, "durationSeconds": 30},
+ * {"rate": 100, "durationSeconds": 30}]}}. Everything else has a default.
+ */
+public record LoadTestRequest(LoadTarget target,
+                              Double rate,
+                              Double durationSeconds,
+                              List<Step> steps,
+                              Integer maxInFlight,
+                              Long timeoutMillis,
+                              List<String> expressions,
+                              Integer expressionPool) {
+
+    public record Step(double rate, double durationSeconds) {
+    }
+
+    LoadTarget targetOrDefault() {
+        return target != null ? target : LoadTarget.EVALUATE;
+    }
+
+    List<Step> schedule() {
+        List<Step> schedule;
+        if (steps != null && !steps.isEmpty()) {
+            schedule = steps;
+        } else if (rate != null && durationSeconds != null) {
+            schedule = List.of(new Step(rate, durationSeconds));
+        } else {
+            throw new IllegalArgumentException("Either rate and durationSeconds or steps are required");
+        }
+        for (Step step : schedule) {
+            if (step.rate() <= 0 || step.durationSeconds() <= 0) {
+                throw new IllegalArgumentException("Rate and duration must be positive: " + step);
+            }
+        }
+        return schedule;
+    }
+
+    // a safety valve against an unresponsive target, not part of the open model
+    int maxInFlightOrDefault() {
+        return maxInFlight != null ? maxInFlight : 10_000;
+    }
+
+    long timeoutMillisOrDefault() {
+        return timeoutMillis != null ? timeoutMillis : 10_000;
+    }
+
+    int expressionPoolOrDefault() {
+        return expressionPool != null ? expressionPool : 100;
+    }
+}
@@ -0,0 +1,84 @@
+package example.calc.tester;
+
+import example.demo.shared.proto.Evaluate;
+import example.demo.shared.proto.EvaluateServiceGrpc;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs one {@link LoadGenerator} at a time against the {@link LoadTarget} of a {@link LoadTestRequest}.
+ */
+@Slf4j
+@Service
+public class LoadTestService {
+
+    @GrpcClient("evaluate-service")
+    private EvaluateServiceGrpc.EvaluateServiceBlockingStub evaluateServiceClient;
+
+    private final TestService testService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LoadTestService(TestService testService) {
+        this.testService = testService;
+    }
+
+    /**
+     * Blocks until the whole schedule has run and the last request has finished.
+     *
+     * @throws IllegalStateException when another load test is still running
+     */
+    public LoadReport run(LoadTestRequest request) {
+        List<LoadTestRequest.Step> schedule = request.schedule();
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A load test is already running");
+        }
+        try {
+            LoadTarget target = request.targetOrDefault();
+            Callable<?> call = switch (target) {
+                case FLOW -> testService::testFlow;
+                case EVALUATE -> evaluateCall(request);
+            };
+            return new LoadGenerator(request.maxInFlightOrDefault()).run(target, schedule, call);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Callable<Double> evaluateCall(LoadTestRequest request) {
+        List<Evaluate.EvaluateRequest> requests = new ArrayList<>();
+        for (String expression : expressions(request)) {
+            requests.add(Evaluate.EvaluateRequest.newBuilder().setExpression(expression).build());
+        }
+        long timeoutMillis = request.timeoutMillisOrDefault();
+        AtomicLong next = new AtomicLong();
+        return () -> evaluateServiceClient
+                .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                .evaluate(requests.get((int) (next.getAndIncrement() % requests.size())))
+                .getResult();
+    }
+
+    // generated before the run, so the generator's latency is not part of what is measured
+    private List<String> expressions(LoadTestRequest request) {
+        if (request.expressions() != null && !request.expressions().isEmpty()) {
+            return request.expressions();
+        }
+        int pool = request.expressionPoolOrDefault();
+        if (pool <= 0) {
+            throw new IllegalArgumentException("expressionPool must be positive: " + pool);
+        }
+        log.info("Generating {} expressions for the load test", pool);
+        List<String> expressions = new ArrayList<>(pool);
+        for (int i = 0; i < pool; i++) {
+            expressions.add(testService.generateExpression());
+        }
+        return expressions;
+    }
+}
@@ -0,0 +1,91 @@
+package example.calc.tester;
+
+import example.demo.shared.proto.Evaluate;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client side of one {@code evaluateStream} call: pushes expressions only while the transport is ready, so gRPC flow
+ * control throttles the sender when the evaluator falls behind, and counts the out-of-order results.
+ */
+@Slf4j
+class StreamingEvaluation implements ClientResponseObserver<Evaluate.EvaluateStreamRequest, Evaluate.EvaluateStreamResponse> {
+
+    private final List<String> expressions;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private ClientCallStreamObserver<Evaluate.EvaluateStreamRequest> requestStream;
+    private int next;
+    private boolean halfClosed;
+    private volatile Throwable streamError;
+
+    StreamingEvaluation(List<String> expressions) {
+        this.expressions = expressions;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<Evaluate.EvaluateStreamRequest> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.setOnReadyHandler(this::sendWhileReady);
+    }
+
+    // only ever called from the transport's serialized onReady callback
+    private void sendWhileReady() {
+        while (requestStream.isReady() && next < expressions.size()) {
+            requestStream.onNext(Evaluate.EvaluateStreamRequest.newBuilder()
+                    .setCorrelationId(next)
+                    .setExpression(expressions.get(next))
+                    .build());
+            next++;
+        }
+        if (next == expressions.size() && !halfClosed) {
+            halfClosed = true;
+            requestStream.onCompleted();
+        }
+    }
+
+    @Override
+    public void onNext(Evaluate.EvaluateStreamResponse response) {
+        if (response.hasError()) {
+            failed.incrementAndGet();
+            log.warn("expression #{} failed: {}", response.getCorrelationId(), response.getError());
+        } else {
+            succeeded.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        streamError = t;
+        finished.countDown();
+    }
+
+    @Override
+    public void onCompleted() {
+        finished.countDown();
+    }
+
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    int succeeded() {
+        return succeeded.get();
+    }
+
+    int failed() {
+        return failed.get();
+    }
+
+    Throwable streamError() {
+        return streamError;
+    }
+}
@@ -1,7 +1,9 @@
 package example.calc.tester;
 
 
+import example.demo.shared.breakdown.LatencyBreakdown;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,22 +13,54 @@ import org.springframework.web.bind.annotation.*;
 public class TestController {
 
     private final TestService testService;
+    private final LoadTestService loadTestService;
 
-    public TestController(TestService testService) {
+    public TestController(TestService testService, LoadTestService loadTestService) {
         this.testService = testService;
+        this.loadTestService = loadTestService;
     }
 
+    /**
+     * The response carries the per-stage breakdown of the request, here and in the evaluator, as a
+     * {@code Server-Timing} header.
+     */
     @GetMapping
     public ResponseEntity<String> testFlow() {
-        String result = testService.testFlow();
+        LatencyBreakdown breakdown = new LatencyBreakdown();
+        String result = LatencyBreakdown.callWith(breakdown, testService::testFlow);
+        return ResponseEntity.ok()
+                .header(LatencyBreakdown.HEADER, breakdown.toHeaderValue())
+                .body(result);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<String> streamFlow(@RequestParam(defaultValue = "100") int count) {
+        String result = testService.streamFlow(count);
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Open-model load test, see {@link LoadGenerator}. Responds once the whole schedule has run.
+     */
+    @PostMapping("/load")
+    public ResponseEntity<?> load(@RequestBody LoadTestRequest request) {
+        try {
+            return ResponseEntity.ok(loadTestService.run(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
     @PostMapping
     public ResponseEntity<String> evaluateExpression(@RequestBody String expression) {
         try {
-            String result = testService.evaluateExpression(expression);
-            return ResponseEntity.ok(result);
+            LatencyBreakdown breakdown = new LatencyBreakdown();
+            String result = LatencyBreakdown.callWith(breakdown, () -> testService.evaluateExpression(expression));
+            return ResponseEntity.ok()
+                    .header(LatencyBreakdown.HEADER, breakdown.toHeaderValue())
+                    .body(result);
         } catch (Exception e) {
             log.error("Error while evaluating expression", e);
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -1,7 +1,13 @@
 package example.calc.tester;
 
+import example.demo.shared.breakdown.LatencyBreakdown;
+import example.demo.shared.logging.HotPathLog;
 import example.demo.shared.proto.Evaluate;
 import example.demo.shared.proto.EvaluateServiceGrpc;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
@@ -9,7 +15,12 @@ import org.springframework.web.client.RestClient;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
@@ -18,17 +29,31 @@ public class TestService {
     @GrpcClient("evaluate-service")
     private EvaluateServiceGrpc.EvaluateServiceBlockingStub evaluateServiceClient;
 
+    @GrpcClient("evaluate-service")
+    private EvaluateServiceGrpc.EvaluateServiceStub evaluateServiceAsyncClient;
+
     private final RestClient restClient;
     private final ExecutorService executor;
+    private final Timer generatorCalls;
+    private final HotPathLog.Site flowLog;
+    private final HotPathLog.Site resultLog;
+    private final HotPathLog.Site generateLog;
 
-    public TestService(RestClient restClient, ExecutorService executor) {
+    public TestService(RestClient restClient, ExecutorService executor, MeterRegistry registry, HotPathLog hotPathLog) {
         this.restClient = restClient;
         this.executor = executor;
+        this.flowLog = hotPathLog.site(log, "test-flow");
+        this.resultLog = hotPathLog.site(log, "test-result");
+        this.generateLog = hotPathLog.site(log, "generate-call");
+        this.generatorCalls = Timer.builder("tester.generator.call")
+                .description("Call to the generator for one expression")
+                .publishPercentileHistogram()
+                .register(registry);
     }
 
     public String testFlow() {
         try {
-            log.info("testFlow: Current Thread: {}", Thread.currentThread());
+            flowLog.info("testFlow: Current Thread: {}", Thread::currentThread);
             final Instant start = Instant.now();
             // Step 1: Generate a random expression
             var expressionF = this.executor.submit(this::generateExpression);
@@ -38,17 +63,17 @@ public class TestService {
             // Step 2: Evaluate the expression via gRPC
             // Step 2.1: create the request format
             String expression = expressionF.get();
-            log.info("testFlow: expression obtained: {}, Thread: {}", expression, Thread.currentThread());
+            flowLog.info("testFlow: expression obtained: {}, Thread: {}", () -> expression, Thread::currentThread);
             Evaluate.EvaluateRequest request = Evaluate.EvaluateRequest.newBuilder()
                     .setExpression(expression)
                     .build();
 
             // Step 2.2: Send request and evaluate the tokens
-            var result = evaluateServiceClient.evaluate(request).getResult();
+            var result = evaluate(request);
 
             final String resultString = String.format("generated {%s} and evaluated its value as {%.8f} in %d ms",
                     expression, result, Duration.between(start, Instant.now()).toMillis());
-            log.info(resultString);
+            resultLog.info(resultString);
             return resultString;
         } catch (Exception e) {
             log.error("error", e);
@@ -58,17 +83,17 @@ public class TestService {
 
     public String evaluateExpression(String expression) {
         try {
-            log.info("Evaluating user expression: {}", expression);
+            flowLog.info("Evaluating user expression: {}", () -> expression);
             final Instant start = Instant.now();
 
             Evaluate.EvaluateRequest request = Evaluate.EvaluateRequest.newBuilder()
                     .setExpression(expression)
                     .build();
 
-            double result = evaluateServiceClient.evaluate(request).getResult();
+            double result = evaluate(request);
             final String resultString = String.format("expression {%s} evaluated to: {%.8f} in %d ms",
                     expression, result, Duration.between(start, Instant.now()).toMillis());
-            log.info(resultString);
+            resultLog.info(resultString);
             return resultString;
         } catch (Exception e) {
             log.error("Evaluation failed for expression: {}", expression, e);
@@ -76,12 +101,85 @@ public class TestService {
         }
     }
 
-    private String generateExpression() {
-        log.info("generateExpression: Current Thread: {}", Thread.currentThread());
-        return restClient
-                .get()
-                .uri("/generate")
-                .retrieve()
-                .body(String.class);
+    /**
+     * Generates {@code count} expressions and evaluates them over a single bidirectional {@code evaluateStream} call.
+     */
+    public String streamFlow(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        try {
+            log.info("streamFlow: generating {} expressions", count);
+            List<Future<String>> expressionFutures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                expressionFutures.add(this.executor.submit(this::generateExpression));
+            }
+            List<String> expressions = new ArrayList<>(count);
+            for (Future<String> expressionFuture : expressionFutures) {
+                expressions.add(expressionFuture.get());
+            }
+
+            final Instant start = Instant.now();
+            StreamingEvaluation stream = new StreamingEvaluation(expressions);
+            evaluateServiceAsyncClient.evaluateStream(stream);
+            if (!stream.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("evaluateStream did not complete in time");
+            }
+            if (stream.streamError() != null) {
+                throw new RuntimeException(stream.streamError());
+            }
+
+            final String resultString = String.format("streamed %d expressions: %d evaluated, %d failed in %d ms",
+                    count, stream.succeeded(), stream.failed(), Duration.between(start, Instant.now()).toMillis());
+            log.info(resultString);
+            return resultString;
+        } catch (Exception e) {
+            log.error("error", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Evaluates over gRPC; with a current {@link LatencyBreakdown}, the evaluator's own breakdown is taken from the
+     * call's trailers and included in it.
+     */
+    private double evaluate(Evaluate.EvaluateRequest request) {
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        if (breakdown == null) {
+            return evaluateServiceClient.evaluate(request).getResult();
+        }
+
+        AtomicReference<Metadata> trailers = new AtomicReference<>();
+        long start = System.nanoTime();
+        try {
+            return evaluateServiceClient
+                    .withInterceptors(MetadataUtils.newCaptureMetadataInterceptor(new AtomicReference<>(), trailers))
+                    .evaluate(request)
+                    .getResult();
+        } finally {
+            breakdown.time("evaluator", System.nanoTime() - start);
+            if (trailers.get() != null) {
+                breakdown.include("evaluator", trailers.get().get(LatencyBreakdown.TRAILER));
+            }
+        }
+    }
+
+    String generateExpression() {
+        generateLog.info("generateExpression: Current Thread: {}", Thread::currentThread);
+        LatencyBreakdown breakdown = LatencyBreakdown.current();
+        long start = System.nanoTime();
+        try {
+            return restClient
+                    .get()
+                    .uri("/generate")
+                    .retrieve()
+                    .body(String.class);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            generatorCalls.record(nanos, TimeUnit.NANOSECONDS);
+            if (breakdown != null) {
+                breakdown.time("generate", nanos);
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package example.calc.tester;
+
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadGeneratorTest {
+
+    private static List<LoadTestRequest.Step> constant(double rate, double seconds) {
+        return List.of(new LoadTestRequest.Step(rate, seconds));
+    }
+
+    @Test
+    void runsTheWholeSchedule() {
+        LoadReport report = new LoadGenerator(1_000).run(LoadTarget.EVALUATE, List.of(
+                new LoadTestRequest.Step(100, 0.3),
+                new LoadTestRequest.Step(200, 0.3)), () -> 1.0);
+
+        assertEquals(90, report.scheduled());
+        assertEquals(90, report.succeeded());
+        assertEquals(150, report.offeredRate(), 0.001);
+        assertEquals(2, report.steps().size());
+        assertEquals(30, report.steps().get(0).scheduled());
+        assertEquals(60, report.steps().get(1).scheduled());
+        assertTrue(report.elapsedSeconds() >= 0.55, "elapsed " + report.elapsedSeconds());
+    }
+
+    @Test
+    void queueingDelayIsMeasured() {
+        // a single server taking 20 ms per request, offered twice what it can handle
+        ReentrantLock server = new ReentrantLock();
+        LoadReport report = new LoadGenerator(1_000).run(LoadTarget.EVALUATE, constant(100, 0.5), () -> {
+            server.lock();
+            try {
+                Thread.sleep(20);
+            } finally {
+                server.unlock();
+            }
+            return null;
+        });
+
+        assertEquals(50, report.succeeded());
+        // the last requests wait for the 49 before them, about 0.5 s beyond their schedule
+        assertTrue(report.responseTime().max() > 300, "max " + report.responseTime().max());
+        assertTrue(report.responseTime().p50() >= report.serviceTime().p50());
+    }
+
+    @Test
+    void errorsAreBrokenDownByType() {
+        AtomicInteger calls = new AtomicInteger();
+        LoadReport report = new LoadGenerator(1_000).run(LoadTarget.EVALUATE, constant(100, 0.3), () -> {
+            int call = calls.incrementAndGet();
+            if (call % 3 == 0) {
+                throw Status.UNAVAILABLE.asRuntimeException();
+            }
+            if (call % 3 == 1) {
+                throw new RuntimeException(new IllegalArgumentException("bad expression"));
+            }
+            return 1.0;
+        });
+
+        assertEquals(30, report.scheduled());
+        assertEquals(10, report.succeeded());
+        assertEquals(20, report.failed());
+        assertEquals(Map.of("UNAVAILABLE", 10L, "IllegalArgumentException", 10L), report.errors());
+    }
+
+    @Test
+    void requestsBeyondMaxInFlightAreDropped() {
+        LoadReport report = new LoadGenerator(1).run(LoadTarget.EVALUATE, constant(100, 0.2), () -> {
+            Thread.sleep(50);
+            return null;
+        });
+
+        assertEquals(20, report.scheduled());
+        assertTrue(report.dropped() > 0);
+        assertEquals(report.scheduled(), report.succeeded() + report.dropped());
+    }
+}
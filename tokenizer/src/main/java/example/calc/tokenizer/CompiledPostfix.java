@@ -0,0 +1,34 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.domain.Token;
+
+import java.util.List;
+
+/**
+ * A tokenized expression in postfix notation, both as tokens and as a packed {@link PostfixTape}, together with the
+ * serialized JSON and binary response bodies.
+ *
+ * @param operatorsBefore operator count before the {@link PostfixOptimizer} pass
+ */
+public record CompiledPostfix(List<Token> postfix, byte[] json, PostfixTape tape, byte[] tapeBytes, int operatorsBefore) {
+
+    // rough per-object overheads: entry + key String, the token records and list, the tape and the byte arrays
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final int TOKEN_OVERHEAD = 24;
+
+    /**
+     * Operator count after the {@link PostfixOptimizer} pass.
+     */
+    public int operatorsAfter() {
+        return tape.operatorCount();
+    }
+
+    /**
+     * Approximate heap footprint in bytes of this value cached under {@code expression}.
+     */
+    int weight(String expression) {
+        return ENTRY_OVERHEAD + 2 * expression.length() + TOKEN_OVERHEAD * postfix.size() + json.length
+                + 2 * tapeBytes.length;
+    }
+}
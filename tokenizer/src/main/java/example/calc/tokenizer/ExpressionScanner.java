@@ -0,0 +1,136 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.NumberToken;
+import example.demo.shared.domain.OperatorToken;
+import example.demo.shared.domain.Token;
+import example.demo.shared.exceptions.InvalidExpressionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass replacement for the regex based {@link Util#tokenize(String)}.
+ * <p>
+ * Numbers (integer or decimal) are accumulated digit by digit into a long mantissa and a decimal scale, so no
+ * intermediate {@code String} is created per token. The mantissa and the power of ten are both exact doubles, so the
+ * single division yields the correctly rounded value; literals with too many digits fall back to
+ * {@link Double#parseDouble}. Unlike the regex path, which silently skips anything it does not recognise, any
+ * unexpected character is reported with its position.
+ */
+public final class ExpressionScanner {
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ExpressionScanner() {
+    }
+
+    public static List<Token> tokenize(CharSequence expression) {
+        final int length = expression.length();
+        final List<Token> tokens = new ArrayList<>(length / 2 + 1);
+
+        int i = 0;
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                i++;
+            } else if (isOperator(c)) {
+                tokens.add(new OperatorToken(c));
+                i++;
+            } else if (isDigit(c) || c == '.') {
+                i = scanNumber(expression, i, tokens);
+            } else {
+                throw new InvalidExpressionException("Invalid character '" + c + "'", i);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokenizes US-ASCII bytes in place, e.g. straight from a request body, without decoding them to a String.
+     */
+    public static List<Token> tokenize(byte[] ascii, int from, int to) {
+        return tokenize(new AsciiSequence(ascii, from, to));
+    }
+
+    static boolean isOperator(char c) {
+        return c == '+' || c == '-' || c == '*' || c == '/' || c == '(' || c == ')';
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Scans the number starting at {@code start}, adds it to {@code tokens} and returns the index after it.
+     */
+    static int scanNumber(CharSequence expression, int start, List<Token> tokens) {
+        final int length = expression.length();
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+
+        int i = start;
+        for (; i < length; i++) {
+            char c = expression.charAt(i);
+            if (isDigit(c)) {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == '.') {
+                throw new InvalidExpressionException("Unexpected second decimal point", i);
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            throw new InvalidExpressionException("Decimal point without digits", start);
+        }
+
+        final double value;
+        if (digits <= 18 && mantissa < MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[scale];
+        } else {
+            value = Double.parseDouble(expression.subSequence(start, i).toString());
+        }
+        tokens.add(new NumberToken(value));
+        return i;
+    }
+
+    /**
+     * Read-only view of a US-ASCII byte range as characters.
+     */
+    private record AsciiSequence(byte[] bytes, int from, int to) implements CharSequence {
+
+        @Override
+        public int length() {
+            return to - from;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[from + index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(bytes, from + start, from + end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
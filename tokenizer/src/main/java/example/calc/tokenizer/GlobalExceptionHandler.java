@@ -0,0 +1,16 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.exceptions.InvalidExpressionException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(InvalidExpressionException.class)
+    public ResponseEntity<String> handleInvalidExpression(InvalidExpressionException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
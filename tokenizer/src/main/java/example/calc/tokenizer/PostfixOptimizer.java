@@ -0,0 +1,201 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.NumberToken;
+import example.demo.shared.domain.OperatorToken;
+import example.demo.shared.domain.RefToken;
+import example.demo.shared.domain.Token;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional pass over the postfix output of the parser that cuts the number and the dependency depth of calculator
+ * calls.
+ * <ul>
+ *     <li><b>Rebalancing</b>: a chain of additions and subtractions such as {@code 1+2-3+4-5} is regrouped into a
+ *     balanced sum of the added terms minus a balanced sum of the subtracted ones, {@code (1+(2+4)) - (3+5)}, and a
+ *     chain of multiplications into a balanced product, so the chain's depth drops from {@code n} to {@code log n}. Division is never regrouped. This is exact in real arithmetic, but for doubles the
+ *     last bits of a result can change, as with any reassociation.</li>
+ *     <li><b>Deduplication</b>: structurally identical subexpressions, taking {@code +} and {@code *} as commutative,
+ *     are emitted once and later occurrences become a {@link RefToken} pointing back at the first one's result.</li>
+ * </ul>
+ */
+public final class PostfixOptimizer {
+
+    private PostfixOptimizer() {
+    }
+
+    public static List<Token> optimize(List<Token> postfix, boolean rebalance, boolean deduplicate) {
+        Node root = parse(postfix);
+        if (rebalance) {
+            root = rebalance(root);
+        }
+        List<Token> optimized = new ArrayList<>(postfix.size());
+        emit(root, optimized, deduplicate ? new Interner() : null, new HashMap<>());
+        return optimized;
+    }
+
+    public static int operatorCount(List<Token> postfix) {
+        int operators = 0;
+        for (Token token : postfix) {
+            if (token instanceof OperatorToken) {
+                operators++;
+            }
+        }
+        return operators;
+    }
+
+    private static Node parse(List<Token> postfix) {
+        Deque<Node> stack = new ArrayDeque<>();
+        for (Token token : postfix) {
+            switch (token) {
+                case NumberToken numberToken -> stack.push(new Leaf(numberToken.value()));
+                case OperatorToken operatorToken -> {
+                    if (stack.size() < 2) {
+                        throw new IllegalArgumentException("Operator " + operatorToken + " is missing an operand");
+                    }
+                    Node right = stack.pop();
+                    Node left = stack.pop();
+                    stack.push(new Operation(operatorToken.operator(), left, right));
+                }
+                case RefToken refToken -> throw new IllegalArgumentException("Postfix is already optimized: " + refToken);
+            }
+        }
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Postfix expression leaves " + stack.size() + " values");
+        }
+        return stack.pop();
+    }
+
+    private static Node rebalance(Node node) {
+        if (!(node instanceof Operation operation)) {
+            return node;
+        }
+        return switch (operation.operator()) {
+            case '+', '-' -> {
+                List<Node> added = new ArrayList<>();
+                List<Node> subtracted = new ArrayList<>();
+                flatten(operation, added, subtracted);
+                Node sum = balance('+', added, 0, added.size());
+                yield subtracted.isEmpty() ? sum : new Operation('-', sum, balance('+', subtracted, 0, subtracted.size()));
+            }
+            case '*' -> {
+                List<Node> factors = new ArrayList<>();
+                flatten(operation, factors, null);
+                yield balance('*', factors, 0, factors.size());
+            }
+            default -> new Operation(operation.operator(), rebalance(operation.left()), rebalance(operation.right()));
+        };
+    }
+
+    /**
+     * Collects the terms of a {@code + -} chain, or the factors of a {@code *} chain, in their original order. Chains
+     * are walked with an explicit stack since the parser emits them left-deep.
+     */
+    private static void flatten(Operation chain, List<Node> positive, List<Node> negative) {
+        boolean additive = negative != null;
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Boolean> negated = new ArrayDeque<>();
+        nodes.push(chain);
+        negated.push(false);
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            boolean negate = negated.pop();
+            if (node instanceof Operation operation && (additive
+                    ? operation.operator() == '+' || operation.operator() == '-'
+                    : operation.operator() == '*')) {
+                nodes.push(operation.right());
+                negated.push(operation.operator() == '-' != negate);
+                nodes.push(operation.left());
+                negated.push(negate);
+            } else {
+                (negate ? negative : positive).add(rebalance(node));
+            }
+        }
+    }
+
+    private static Node balance(char operator, List<Node> operands, int from, int to) {
+        if (to - from == 1) {
+            return operands.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return new Operation(operator, balance(operator, operands, from, middle), balance(operator, operands, middle, to));
+    }
+
+    /**
+     * Emits {@code node} in postfix order. With an {@code interner} present, an operation structurally equal to one
+     * emitted before becomes a {@link RefToken} to that operation's position in {@code emitted}.
+     */
+    private static void emit(Node node, List<Token> out, Interner interner, Map<Integer, Integer> emitted) {
+        switch (node) {
+            case Leaf leaf -> out.add(new NumberToken(leaf.value()));
+            case Operation operation -> {
+                int id = interner == null ? -1 : interner.id(operation);
+                Integer position = emitted.get(id);
+                if (position != null) {
+                    out.add(new RefToken(position));
+                    return;
+                }
+                emit(operation.left(), out, interner, emitted);
+                emit(operation.right(), out, interner, emitted);
+                out.add(new OperatorToken(operation.operator()));
+                if (interner != null) {
+                    emitted.put(id, out.size() - 1);
+                }
+            }
+        }
+    }
+
+    private sealed interface Node permits Leaf, Operation {
+    }
+
+    private record Leaf(double value) implements Node {
+    }
+
+    private record Operation(char operator, Node left, Node right) implements Node {
+    }
+
+    private record Key(char operator, int left, int right) {
+    }
+
+    /**
+     * Hash-conses subexpressions: structurally equal subexpressions get the same small integer id.
+     */
+    private static final class Interner {
+        private final Map<Object, Integer> ids = new HashMap<>();
+        private final Map<Node, Integer> nodeIds = new IdentityHashMap<>();
+
+        int id(Node node) {
+            Integer id = nodeIds.get(node);
+            if (id == null) {
+                id = switch (node) {
+                    case Leaf leaf -> intern(Double.doubleToLongBits(leaf.value()));
+                    case Operation operation -> {
+                        int left = id(operation.left());
+                        int right = id(operation.right());
+                        boolean commutative = operation.operator() == '+' || operation.operator() == '*';
+                        yield intern(new Key(operation.operator(),
+                                commutative ? Math.min(left, right) : left,
+                                commutative ? Math.max(left, right) : right));
+                    }
+                };
+                nodeIds.put(node, id);
+            }
+            return id;
+        }
+
+        private int intern(Object key) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = ids.size();
+                ids.put(key, id);
+            }
+            return id;
+        }
+    }
+}
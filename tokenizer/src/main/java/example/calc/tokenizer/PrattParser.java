@@ -0,0 +1,125 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.NumberToken;
+import example.demo.shared.domain.OperatorToken;
+import example.demo.shared.domain.Token;
+import example.demo.shared.exceptions.InvalidExpressionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass parser from characters straight to postfix tokens, replacing {@link ExpressionScanner} followed by
+ * {@link Util#convertToPostfix(List)}.
+ * <p>
+ * Precedence climbing (Pratt parsing): {@code * /} bind tighter than {@code + -}, all four are left-associative, and
+ * a bracketed expression or a unary minus is parsed as an operand. A unary minus directly in front of a literal is
+ * folded into it; in front of anything else it becomes {@code 0 x -}, binding tighter than any binary operator.
+ * Numbers are scanned by {@link ExpressionScanner#scanNumber}, which appends them to the postfix output directly.
+ */
+public final class PrattParser {
+
+    // left binding powers; the right binding power of a left-associative operator is one higher
+    private static final int ADDITIVE = 1;
+    private static final int MULTIPLICATIVE = 2;
+    private static final int MAX_NESTING = 256;
+
+    private final CharSequence expression;
+    private final List<Token> postfix;
+    private int position;
+    private int nesting;
+
+    private PrattParser(CharSequence expression) {
+        this.expression = expression;
+        this.postfix = new ArrayList<>(expression.length() / 2 + 1);
+    }
+
+    public static List<Token> parse(CharSequence expression) {
+        PrattParser parser = new PrattParser(expression);
+        parser.parseExpression(ADDITIVE);
+        if (parser.skipWhitespace()) {
+            // parseExpression only stops early at a closing bracket
+            throw new InvalidExpressionException("Unmatched closing bracket", parser.position);
+        }
+        return parser.postfix;
+    }
+
+    private void parseExpression(int minimumBindingPower) {
+        parseOperand();
+        while (skipWhitespace()) {
+            char operator = expression.charAt(position);
+            int bindingPower = switch (operator) {
+                case '+', '-' -> ADDITIVE;
+                case '*', '/' -> MULTIPLICATIVE;
+                case ')' -> 0;
+                default -> throw new InvalidExpressionException("Expected an operator but found '" + operator + "'", position);
+            };
+            if (bindingPower < minimumBindingPower) {
+                return;
+            }
+            position++;
+            parseExpression(bindingPower + 1);
+            postfix.add(new OperatorToken(operator));
+        }
+    }
+
+    private void parseOperand() {
+        if (!skipWhitespace()) {
+            throw new InvalidExpressionException("Unexpected end of expression", position);
+        }
+        char c = expression.charAt(position);
+        if (startsNumber(c)) {
+            position = ExpressionScanner.scanNumber(expression, position, postfix);
+        } else if (c == '(') {
+            int open = position++;
+            if (++nesting > MAX_NESTING) {
+                throw new InvalidExpressionException("Brackets nested deeper than " + MAX_NESTING, open);
+            }
+            parseExpression(ADDITIVE);
+            if (!skipWhitespace() || expression.charAt(position) != ')') {
+                throw new InvalidExpressionException("Unclosed bracket", open);
+            }
+            position++;
+            nesting--;
+        } else if (c == '-') {
+            parseNegation();
+        } else {
+            throw new InvalidExpressionException("Expected a number or '(' but found '" + c + "'", position);
+        }
+    }
+
+    private void parseNegation() {
+        int minus = position++;
+        if (skipWhitespace() && startsNumber(expression.charAt(position))) {
+            position = ExpressionScanner.scanNumber(expression, position, postfix);
+            int last = postfix.size() - 1;
+            postfix.set(last, new NumberToken(-((NumberToken) postfix.get(last)).value()));
+            return;
+        }
+        if (++nesting > MAX_NESTING) {
+            throw new InvalidExpressionException("Unary minus nested deeper than " + MAX_NESTING, minus);
+        }
+        postfix.add(new NumberToken(0));
+        parseOperand();
+        postfix.add(new OperatorToken('-'));
+        nesting--;
+    }
+
+    private static boolean startsNumber(char c) {
+        return ExpressionScanner.isDigit(c) || c == '.';
+    }
+
+    /**
+     * @return whether there is a non-whitespace character at {@link #position}
+     */
+    private boolean skipWhitespace() {
+        while (position < expression.length()) {
+            char c = expression.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return true;
+            }
+            position++;
+        }
+        return false;
+    }
+}
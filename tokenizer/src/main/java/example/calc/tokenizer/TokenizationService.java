@@ -0,0 +1,96 @@
+package example.calc.tokenizer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import example.demo.shared.Utils.Serdes;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.domain.Token;
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.logging.HotPathLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Turns an infix expression into postfix tokens and their serialized response bodies.
+ * <p>
+ * Results can be kept in a bounded W-TinyLFU cache (Caffeine's default eviction policy), weighted by approximate
+ * heap footprint, so a repeated expression skips the scan, the conversion, the simulated work and the
+ * serialization altogether.
+ */
+@Slf4j
+@Service
+public class TokenizationService {
+
+    private static final String CACHE_NAME = "tokenizer.postfix";
+
+    private final Serdes serdes;
+    private final TokenizerProperties.Parser parser;
+    private final TokenizerProperties.Scanner scanner;
+    private final TokenizerProperties.Optimize optimize;
+    private final Cache<String, CompiledPostfix> cache;
+    private final LatencyInjector.Endpoint latency;
+    private final HotPathLog.Site tokensLog;
+    private final HotPathLog.Site postfixLog;
+
+    public TokenizationService(Serdes serdes, TokenizerProperties tokenizerProperties, LatencyInjector latency,
+                               HotPathLog hotPathLog, MeterRegistry registry) {
+        this.serdes = serdes;
+        this.latency = latency.endpoint("tokenize", Duration.ofMillis(100));
+        this.tokensLog = hotPathLog.site(log, "tokenize-tokens");
+        this.postfixLog = hotPathLog.site(log, "tokenize-postfix");
+        this.parser = tokenizerProperties.getParser();
+        this.scanner = tokenizerProperties.getScanner();
+        this.optimize = tokenizerProperties.getOptimize();
+
+        TokenizerProperties.Cache properties = tokenizerProperties.getCache();
+        if (properties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(properties.getMaximumWeightBytes())
+                    .weigher((String expression, CompiledPostfix compiled) -> compiled.weight(expression))
+                    .expireAfterAccess(properties.getExpireAfterAccess())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+            registry.gauge("cache.weighted.size", Tags.of("cache", CACHE_NAME), cache,
+                    c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public CompiledPostfix tokenize(String expression) {
+        return cache == null ? compile(expression) : cache.get(expression, this::compile);
+    }
+
+    private CompiledPostfix compile(String expression) {
+        latency.inject();
+
+        List<Token> postfix = switch (parser) {
+            case PRATT -> PrattParser.parse(expression);
+            case SHUNTING_YARD -> {
+                List<Token> tokens = switch (scanner) {
+                    case HAND_WRITTEN -> ExpressionScanner.tokenize(expression);
+                    case REGEX -> Util.tokenize(expression);
+                };
+                tokensLog.info("Tokens extracted: {}", () -> serdes.serialize(tokens));
+                yield Util.convertToPostfix(tokens);
+            }
+        };
+        int operatorsBefore = PostfixOptimizer.operatorCount(postfix);
+        if (optimize.isEnabled() && postfix.size() <= optimize.getMaxTokens()) {
+            postfix = PostfixOptimizer.optimize(postfix, optimize.isRebalance(), optimize.isDeduplicate());
+        }
+        byte[] json = serdes.serializeToBytes(postfix);
+        postfixLog.info("Postfix expression: {}", () -> new String(json, StandardCharsets.UTF_8));
+
+        PostfixTape tape = PostfixTape.fromTokens(postfix);
+        return new CompiledPostfix(postfix, json, tape, tape.toBytes(), operatorsBefore);
+    }
+}
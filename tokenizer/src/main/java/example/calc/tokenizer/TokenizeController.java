@@ -1,47 +1,67 @@
 package example.calc.tokenizer;
 
-import example.demo.shared.Utils.Serdes;
-import example.demo.shared.domain.Token;
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.logging.HotPathLog;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
-import static example.demo.shared.Utils.Sleeper.sleep;
-
 @Slf4j
 @RestController
 @RequestMapping("/tokenize")
 public class TokenizeController {
 
-    private final Serdes serdes;
+    static final String OPERATORS_BEFORE_HEADER = "X-Operators-Before";
+    static final String OPERATORS_AFTER_HEADER = "X-Operators-After";
 
-    public TokenizeController(Serdes serdes) {
-        this.serdes = serdes;
+    private final TokenizationService tokenizationService;
+    private final HotPathLog.Site requestLog;
+
+    public TokenizeController(TokenizationService tokenizationService, HotPathLog hotPathLog) {
+        this.tokenizationService = tokenizationService;
+        this.requestLog = hotPathLog.site(log, "tokenize-request");
     }
 
     /**
      * Receives an infix expression as a string, tokenizes it,
      * and returns the tokenized expression in postfix notation.
+     * The response body is written from the already serialized JSON bytes.
+     * The operator counts before and after the optimization pass are returned as headers.
      *
      * @param expression an infix expression as a string
-     * @return a list of tokens representing the same expression in postfix notation
+     * @return a JSON list of tokens representing the same expression in postfix notation
      */
     @PostMapping
-    public List<Token> tokenizeExpression(@RequestBody String expression) {
-        log.info("Tokenize request received: {}", expression);
+    public ResponseEntity<byte[]> tokenizeExpression(@RequestBody String expression) {
+        requestLog.info("Tokenize request received: {}", () -> expression);
 
-        sleep(100);
+        CompiledPostfix compiled = tokenizationService.tokenize(expression);
+        return ok(compiled)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compiled.json());
+    }
 
-        List<Token> tokens = Util.tokenize(expression);
-        log.info("Tokens extracted: {}", serdes.serialize(tokens));
+    /**
+     * Same as {@link #tokenizeExpression(String)}, but returns the postfix expression as a binary
+     * {@link PostfixTape} instead of a JSON list of polymorphic tokens.
+     */
+    @PostMapping(path = "/tape", produces = PostfixTape.MEDIA_TYPE)
+    public ResponseEntity<byte[]> tokenizeToTape(@RequestBody String expression) {
+        requestLog.info("Tokenize (tape) request received: {}", () -> expression);
 
-        var postfix = Util.convertToPostfix(tokens);
-        log.info("Postfix expression: {}", serdes.serialize(postfix));
+        CompiledPostfix compiled = tokenizationService.tokenize(expression);
+        return ok(compiled)
+                .contentType(MediaType.parseMediaType(PostfixTape.MEDIA_TYPE))
+                .body(compiled.tapeBytes());
+    }
 
-        return postfix;
+    private static ResponseEntity.BodyBuilder ok(CompiledPostfix compiled) {
+        return ResponseEntity.ok()
+                .header(OPERATORS_BEFORE_HEADER, String.valueOf(compiled.operatorsBefore()))
+                .header(OPERATORS_AFTER_HEADER, String.valueOf(compiled.operatorsAfter()));
     }
 }
@@ -1,7 +1,10 @@
 package example.calc.tokenizer;
 
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 
 @SpringBootApplication
@@ -12,4 +15,9 @@ public class TokenizerApplication {
         SpringApplication.run(TokenizerApplication.class, args);
     }
 
+    @Bean
+    public ObservationGrpcServerInterceptor grpcServerInterceptor(ObservationRegistry observationRegistry) {
+        return new ObservationGrpcServerInterceptor(observationRegistry);
+    }
+
 }
@@ -0,0 +1,35 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.limit.ConcurrencyLimitFilter;
+import example.demo.shared.limit.ConcurrencyLimitProperties;
+import example.demo.shared.limit.ConcurrencyLimitingServerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One limiter shared by {@code POST /tokenize} and the {@code Tokenizer} gRPC service, since both compete for the
+ * same {@link TokenizationService}.
+ */
+@Configuration
+public class TokenizerConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimitingServerInterceptor tokenizerConcurrencyLimiter(ConcurrencyLimitProperties properties,
+                                                                            MeterRegistry registry) {
+        return ConcurrencyLimitingServerInterceptor.create("tokenizer", properties, registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> tokenizerConcurrencyLimitFilter(
+            @Qualifier("tokenizerConcurrencyLimiter") ConcurrencyLimitingServerInterceptor tokenizerConcurrencyLimiter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(tokenizerConcurrencyLimiter.getLimiter()));
+        registration.addUrlPatterns("/tokenize", "/tokenize/*");
+        return registration;
+    }
+}
@@ -0,0 +1,52 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.logging.HotPathLog;
+import example.demo.shared.proto.TokenizerGrpc;
+import example.demo.shared.proto.TokenizerOuterClass;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+/**
+ * gRPC counterpart of {@link TokenizeController}, returning the postfix tokens as packed columns. As with
+ * {@link GlobalExceptionHandler}, only an invalid expression is the caller's fault ({@code INVALID_ARGUMENT});
+ * anything else is {@code INTERNAL}, so the caller neither caches it as permanent nor gives up retrying.
+ */
+@Slf4j
+@GrpcService(interceptorNames = "tokenizerConcurrencyLimiter")
+public class TokenizerGrpcService extends TokenizerGrpc.TokenizerImplBase {
+
+    private final TokenizationService tokenizationService;
+    private final HotPathLog.Site requestLog;
+
+    public TokenizerGrpcService(TokenizationService tokenizationService, HotPathLog hotPathLog) {
+        this.tokenizationService = tokenizationService;
+        this.requestLog = hotPathLog.site(log, "tokenize-grpc-request");
+    }
+
+    @Override
+    public void tokenize(TokenizerOuterClass.TokenizeRequest request,
+                         StreamObserver<TokenizerOuterClass.TokenizeResponse> responseObserver) {
+        try {
+            requestLog.info("Tokenize request received: {}", request::getExpression);
+            CompiledPostfix compiled = tokenizationService.tokenize(request.getExpression());
+            responseObserver.onNext(compiled.tape().toProto().toBuilder()
+                    .setOperatorsBefore(compiled.operatorsBefore())
+                    .setOperatorsAfter(compiled.operatorsAfter())
+                    .build());
+            responseObserver.onCompleted();
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid expression: {}", e.getMessage());
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (RuntimeException e) {
+            log.error("Error tokenizing expression", e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription(e.getMessage())
+                    .withCause(e)
+                    .asRuntimeException());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package example.calc.tokenizer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "tokenizer")
+public class TokenizerProperties {
+
+    private Parser parser = Parser.PRATT;
+    // only used by the SHUNTING_YARD parser
+    private Scanner scanner = Scanner.HAND_WRITTEN;
+    private Cache cache = new Cache();
+    private Optimize optimize = new Optimize();
+
+    public enum Parser {
+        /** single-pass {@link PrattParser} from characters to postfix, with brackets and unary minus */
+        PRATT,
+        /** a {@link Scanner} pass followed by {@link Util#convertToPostfix}, which ignores brackets */
+        SHUNTING_YARD
+    }
+
+    public enum Scanner {
+        /** single-pass {@link ExpressionScanner} */
+        HAND_WRITTEN,
+        /** the original {@link Util#tokenize(String)} regex matcher, kept for comparison */
+        REGEX
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = false;
+        // approximate heap footprint, see CompiledPostfix#weight
+        private long maximumWeightBytes = 16 * 1024 * 1024;
+        private Duration expireAfterAccess = Duration.ofMinutes(10);
+    }
+
+    /**
+     * See {@link PostfixOptimizer}.
+     */
+    @Data
+    public static class Optimize {
+        private boolean enabled = false;
+        private boolean rebalance = true;
+        private boolean deduplicate = true;
+        // longer expressions are passed through unchanged, bounding the optimizer's recursion depth
+        private int maxTokens = 4096;
+    }
+}
@@ -0,0 +1,50 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.NumberToken;
+import example.demo.shared.domain.OperatorToken;
+import example.demo.shared.domain.Token;
+import example.demo.shared.exceptions.InvalidExpressionException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpressionScannerTest {
+
+    @Test
+    void matchesRegexTokenizerOnIntegers() {
+        String infix = "4 * 9 - 6 + 3 + 6 * 8 / 6 + 9";
+        assertEquals(Util.tokenize(infix), ExpressionScanner.tokenize(infix));
+        assertEquals(Util.tokenize("(12+345)*6789"), ExpressionScanner.tokenize("(12+345)*6789"));
+    }
+
+    @Test
+    void decimals() {
+        List<Token> expected = List.of(new NumberToken(1.5), new OperatorToken('*'), new NumberToken(0.25),
+                new OperatorToken('-'), new NumberToken(3.0));
+        assertEquals(expected, ExpressionScanner.tokenize("1.5*.25 - 3."));
+        assertEquals(List.of(new NumberToken(0.1)), ExpressionScanner.tokenize("0.1"));
+        assertEquals(List.of(new NumberToken(Double.parseDouble("1234567890.12345678901"))),
+                ExpressionScanner.tokenize("1234567890.12345678901"));
+    }
+
+    @Test
+    void bytes() {
+        byte[] body = "  7 / 2 ".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(List.of(new NumberToken(7), new OperatorToken('/'), new NumberToken(2)),
+                ExpressionScanner.tokenize(body, 0, body.length));
+    }
+
+    @Test
+    void reportsPositionOfInvalidCharacter() {
+        InvalidExpressionException e = assertThrows(InvalidExpressionException.class,
+                () -> ExpressionScanner.tokenize("1 + 2 x 3"));
+        assertEquals(6, e.getPosition());
+
+        e = assertThrows(InvalidExpressionException.class, () -> ExpressionScanner.tokenize("1.2.3"));
+        assertEquals(3, e.getPosition());
+    }
+}
@@ -0,0 +1,53 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.domain.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PostfixOptimizerTest {
+
+    private static List<Token> postfix(String infix) {
+        return Util.convertToPostfix(ExpressionScanner.tokenize(infix));
+    }
+
+    private static String optimized(String infix, boolean rebalance, boolean deduplicate) {
+        return PostfixTape.fromTokens(PostfixOptimizer.optimize(postfix(infix), rebalance, deduplicate)).toString();
+    }
+
+    @Test
+    void disabledPassesAreIdentity() {
+        List<Token> postfix = postfix("4 * 9 - 6 + 3 + 6 * 8 / 6 + 9");
+        assertEquals(postfix, PostfixOptimizer.optimize(postfix, false, false));
+    }
+
+    @Test
+    void rebalancesAdditionChain() {
+        assertEquals("1.0 2.0 + 3.0 4.0 + +", optimized("1+2+3+4", true, false));
+        assertEquals("1.0 2.0 4.0 + + 3.0 5.0 + -", optimized("1+2-3+4-5", true, false));
+        assertEquals("2.0 3.0 * 4.0 5.0 * *", optimized("2*3*4*5", true, false));
+    }
+
+    @Test
+    void divisionIsNotRegrouped() {
+        assertEquals("8.0 4.0 / 2.0 /", optimized("8/4/2", true, false));
+    }
+
+    @Test
+    void deduplicatesRepeatedSubexpressions() {
+        assertEquals("3.0 4.0 * 5.0 + @2 +", optimized("3*4+5+3*4", false, true));
+        // commutative operands match in either order
+        assertEquals("3.0 4.0 * 5.0 + @2 -", optimized("3*4+5-4*3", false, true));
+        assertEquals("4.0 2.0 / 1.0 + 2.0 4.0 / +", optimized("4/2+1+2/4", false, true));
+    }
+
+    @Test
+    void operatorCount() {
+        List<Token> optimized = PostfixOptimizer.optimize(postfix("3*4+5+3*4"), true, true);
+        assertEquals(4, PostfixOptimizer.operatorCount(postfix("3*4+5+3*4")));
+        assertEquals(3, PostfixOptimizer.operatorCount(optimized));
+    }
+}
@@ -0,0 +1,56 @@
+package example.calc.tokenizer;
+
+import example.demo.shared.domain.PostfixTape;
+import example.demo.shared.exceptions.InvalidExpressionException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrattParserTest {
+
+    private static String postfix(String infix) {
+        return PostfixTape.fromTokens(PrattParser.parse(infix)).toString();
+    }
+
+    @Test
+    void matchesShuntingYardWithoutBrackets() {
+        String infix = "4 * 9 - 6 + 3 + 6 * 8 / 6 + 9";
+        assertEquals(Util.convertToPostfix(ExpressionScanner.tokenize(infix)), PrattParser.parse(infix));
+    }
+
+    @Test
+    void precedenceAndLeftAssociativity() {
+        assertEquals("1.0 2.0 3.0 * +", postfix("1+2*3"));
+        assertEquals("1.0 2.0 - 3.0 -", postfix("1-2-3"));
+        assertEquals("8.0 4.0 / 2.0 /", postfix("8/4/2"));
+    }
+
+    @Test
+    void brackets() {
+        assertEquals("1.0 2.0 + 3.0 *", postfix("(1+2)*3"));
+        assertEquals("1.5 0.5 2.0 - *", postfix(" 1.5 * ( .5 - 2 ) "));
+        assertEquals("3.0", postfix("((3))"));
+    }
+
+    @Test
+    void unaryMinus() {
+        // folded into literals
+        assertEquals("-3.0 2.0 *", postfix("-3*2"));
+        assertEquals("2.0 -3.0 -", postfix("2--3"));
+        // otherwise 0 x -, binding tighter than any binary operator
+        assertEquals("0.0 1.0 2.0 + - 3.0 *", postfix("-(1+2)*3"));
+        assertEquals("0.0 -3.0 -", postfix("--3"));
+    }
+
+    @Test
+    void reportsErrorPositions() {
+        assertEquals(0, assertThrows(InvalidExpressionException.class, () -> PrattParser.parse("(1+2")).getPosition());
+        assertEquals(3, assertThrows(InvalidExpressionException.class, () -> PrattParser.parse("1+2)")).getPosition());
+        assertEquals(2, assertThrows(InvalidExpressionException.class, () -> PrattParser.parse("1+")).getPosition());
+        assertEquals(2, assertThrows(InvalidExpressionException.class, () -> PrattParser.parse("1 2")).getPosition());
+        assertEquals(2, assertThrows(InvalidExpressionException.class, () -> PrattParser.parse("1+*2")).getPosition());
+        assertThrows(InvalidExpressionException.class, () -> PrattParser.parse(""));
+        assertThrows(InvalidExpressionException.class, () -> PrattParser.parse("(".repeat(1000) + "1" + ")".repeat(1000)));
+    }
+}
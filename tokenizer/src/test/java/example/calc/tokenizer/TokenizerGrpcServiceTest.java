@@ -0,0 +1,62 @@
+package example.calc.tokenizer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import example.demo.shared.Utils.Serdes;
+import example.demo.shared.exceptions.InvalidExpressionException;
+import example.demo.shared.latency.LatencyInjector;
+import example.demo.shared.latency.LatencyProperties;
+import example.demo.shared.logging.HotPathLog;
+import example.demo.shared.logging.HotPathLogProperties;
+import example.demo.shared.proto.TokenizerOuterClass;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenizerGrpcServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HotPathLog hotPathLog = new HotPathLog(new HotPathLogProperties(), registry);
+
+    private Status statusOf(RuntimeException failure) {
+        TokenizationService failing = new TokenizationService(new Serdes(new ObjectMapper()), new TokenizerProperties(),
+                new LatencyInjector(new LatencyProperties(), registry), hotPathLog, registry) {
+            @Override
+            public CompiledPostfix tokenize(String expression) {
+                throw failure;
+            }
+        };
+        TokenizerGrpcService service = new TokenizerGrpcService(failing, hotPathLog);
+
+        Status[] status = new Status[1];
+        service.tokenize(TokenizerOuterClass.TokenizeRequest.newBuilder().setExpression("1+").build(),
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(TokenizerOuterClass.TokenizeResponse value) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        status[0] = Status.fromThrowable(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        return status[0];
+    }
+
+    @Test
+    void invalidExpressionIsInvalidArgument() {
+        assertEquals(Status.Code.INVALID_ARGUMENT,
+                statusOf(new InvalidExpressionException("Unexpected end", 2)).getCode());
+    }
+
+    @Test
+    void otherFailuresAreInternal() {
+        assertEquals(Status.Code.INTERNAL, statusOf(new NullPointerException("boom")).getCode());
+    }
+}